@@ -0,0 +1,89 @@
+package ru.yandex.practicum.java.devext.kanban.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.BackupConfig;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.FileBackedTaskManager;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.SnapshotFormat;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/** Запись снимка и восстановление {@link FileBackedTaskManager} из снимка с {@code size} задачами */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileBackedBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"CSV", "BINARY"})
+    public SnapshotFormat format;
+
+    private Path dir, backupPath;
+    private BackupConfig config;
+    private FileBackedTaskManager taskManager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("kanban-jmh");
+        backupPath = dir.resolve("backup");
+        config = BackupConfig.builder()
+                .snapshotFormat(format)
+                .build();
+        taskManager = new FileBackedTaskManager(backupPath, config);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Task> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task t = new Task(taskManager.getNextId(), "Task " + i);
+            t.setDescription("Description of task " + i);
+            t.setStartDateTime(start.plusHours(i));
+            t.setDuration(Duration.ofMinutes(30));
+            batch.add(t);
+        }
+        taskManager.addTasks(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        taskManager.close();
+        try (var files = Files.list(dir)) {
+            for (Path p : files.toList())
+                Files.delete(p);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public FileBackedTaskManager save() {
+        taskManager.checkpoint();
+        return taskManager;
+    }
+
+    @Benchmark
+    public FileBackedTaskManager restore() {
+        return new FileBackedTaskManager(backupPath, config);
+    }
+}
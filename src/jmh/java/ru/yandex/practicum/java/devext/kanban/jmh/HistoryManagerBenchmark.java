@@ -0,0 +1,60 @@
+package ru.yandex.practicum.java.devext.kanban.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.java.devext.kanban.history.HistoryManager;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.management.Managers;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+/** История просмотров по умолчанию после {@code views} просмотров разных задач */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryManagerBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int views;
+
+    private HistoryManager historyManager;
+    private Task[] tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        historyManager = Managers.getDefaultHistory();
+        tasks = new Task[views];
+        for (int i = 0; i < views; i++) {
+            tasks[i] = new Task(i, "Task " + i);
+            historyManager.add(tasks[i]);
+        }
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    /** Повторный просмотр: задача переносится в конец истории */
+    @Benchmark
+    public Task add() {
+        Task t = tasks[ThreadLocalRandom.current().nextInt(views)];
+        historyManager.add(t);
+        return t;
+    }
+}
@@ -0,0 +1,102 @@
+package ru.yandex.practicum.java.devext.kanban.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.java.devext.kanban.task.Epic;
+import ru.yandex.practicum.java.devext.kanban.task.SubTask;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.TaskStatus;
+import ru.yandex.practicum.java.devext.kanban.task.management.Managers;
+import ru.yandex.practicum.java.devext.kanban.task.management.TaskManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Основные операции {@link TaskManager} на доске из {@code boardSize} задач. Задачи идут через час и длятся час,
+ * поэтому между ними остаются свободные окна, куда добавляется новая задача.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskManagerBenchmark {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int EPIC_SIZE = 100;
+
+    @Param({"100", "1000", "10000"})
+    public int boardSize;
+
+    private TaskManager taskManager;
+    private List<SubTask> epicSubTasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskManager = Managers.getDefault();
+        for (int i = 0; i < boardSize; i++)
+            taskManager.addTask(scheduled(new Task(taskManager.getNextId(), "Task " + i), i * 2));
+        Epic epic = new Epic(taskManager.getNextId(), "Epic");
+        taskManager.addEpic(epic);
+        epicSubTasks = new ArrayList<>();
+        for (int i = 0; i < EPIC_SIZE; i++) {
+            SubTask st = scheduled(new SubTask(taskManager.getNextId(), "Subtask " + i), (boardSize + i) * 2);
+            taskManager.addSubTask(st, epic);
+            epicSubTasks.add(st);
+        }
+    }
+
+    /** Добавление с проверкой пересечений в случайное свободное окно и удаление, чтобы размер доски не менялся */
+    @Benchmark
+    public Task addTaskWithOverlapCheck() {
+        int window = ThreadLocalRandom.current().nextInt(boardSize);
+        Task t = new Task(taskManager.getNextId(), "Added task");
+        t.setStartDateTime(BASE.plusHours(window * 2L + 1));
+        t.setDuration(Duration.ofMinutes(30));
+        taskManager.addTask(t);
+        taskManager.removeTask(t.getId());
+        return t;
+    }
+
+    @Benchmark
+    public LinkedList<Task> getPrioritizedTasks() {
+        return taskManager.getPrioritizedTasks();
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasksHead() {
+        return taskManager.getPrioritizedTasks(20);
+    }
+
+    /** Смена статуса подзадачи с пересчётом статуса и сроков эпика из {@value #EPIC_SIZE} подзадач */
+    @Benchmark
+    public SubTask updateSubTask() {
+        SubTask st = epicSubTasks.get(ThreadLocalRandom.current().nextInt(EPIC_SIZE));
+        st.setStatus(st.getStatus() == TaskStatus.NEW ? TaskStatus.IN_PROGRESS : TaskStatus.NEW);
+        taskManager.updateSubTask(st);
+        return st;
+    }
+
+    private static <T extends Task> T scheduled(T task, long startHour) {
+        task.setStartDateTime(BASE.plusHours(startHour));
+        task.setDuration(Duration.ofHours(1));
+        return task;
+    }
+}
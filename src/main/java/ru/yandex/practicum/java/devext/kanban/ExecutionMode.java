@@ -0,0 +1,11 @@
+package ru.yandex.practicum.java.devext.kanban;
+
+/** На каких потоках {@link HttpTaskServer} обрабатывает запросы */
+public enum ExecutionMode {
+    /** Все запросы на единственном потоке-диспетчере HTTP-сервера */
+    SINGLE,
+    /** Пул платформенных потоков фиксированного размера */
+    POOL,
+    /** Отдельный виртуальный поток на каждый запрос (Java 21+, иначе — расширяемый пул платформенных потоков) */
+    VIRTUAL
+}
@@ -1,28 +1,117 @@
 package ru.yandex.practicum.java.devext.kanban;
 
 import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import com.sun.net.httpserver.HttpHandler;
+import ru.yandex.practicum.java.devext.kanban.metrics.InstrumentedTaskManager;
+import ru.yandex.practicum.java.devext.kanban.metrics.MetricsRegistry;
 import ru.yandex.practicum.java.devext.kanban.rest.*;
 import ru.yandex.practicum.java.devext.kanban.task.management.Managers;
 import ru.yandex.practicum.java.devext.kanban.task.management.TaskManager;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 public class HttpTaskServer {
 
-    private static final int PORT = 8080;
+    private final HttpServer httpServer;
+    @Getter
+    private final TaskManager taskManager;
+    private final ExecutorService executor;
+    @Getter
+    private final MetricsRegistry metrics = new MetricsRegistry();
+
+    public HttpTaskServer(TaskManager taskManager, ServerConfig config) throws IOException {
+        this.taskManager = taskManager;
+        httpServer = HttpServer.create(new InetSocketAddress(config.getPort()), config.getBacklog());
+        taskManager.registerMetrics(metrics);
+        TaskManager instrumented = InstrumentedTaskManager.wrap(taskManager, metrics);
+        createContext("/tasks", new TaskHandler(instrumented));
+        createContext("/subtasks", new SubTaskHandler(instrumented));
+        createContext("/epics", new EpicHandler(instrumented));
+        createContext("/history", new HistoryHandler(instrumented));
+        createContext("/prioritized", new PrioritizedHandler(instrumented));
+        createContext("/metrics", new MetricsHandler(metrics));
+        createContext("/stop", new StopServerHandler(this));
+        executor = createExecutor(config);
+        httpServer.setExecutor(executor);
+    }
 
     public static void main(String[] args) throws IOException {
-        TaskManager taskManager = Managers.getDefault();
-        HttpServer httpServer = HttpServer.create(new InetSocketAddress(PORT), 3);
-        httpServer.createContext("/tasks", new TaskHandler(taskManager));
-        httpServer.createContext("/subtasks", new SubTaskHandler(taskManager));
-        httpServer.createContext("/epics", new EpicHandler(taskManager));
-        httpServer.createContext("/history", new HistoryHandler(taskManager));
-        httpServer.createContext("/prioritized", new PrioritizedHandler(taskManager));
-        httpServer.createContext("/stop", new StopServerHandler(httpServer));
+        ServerConfig config = ServerConfig.fromArgs(args);
+        configureProcess(config);
+        new HttpTaskServer(Managers.getDefault(), config).start();
+        log.info("Server started with {}", config);
+    }
+
+    /**
+     * Применяет настройки уровня процесса. JDK читает их один раз, при создании первого сервера, и они
+     * действуют на все серверы в JVM, поэтому вызывается из {@link #main} или кодом, встраивающим сервер.
+     */
+    public static void configureProcess(ServerConfig config) {
+        System.setProperty("sun.net.httpserver.nodelay", String.valueOf(config.isTcpNoDelay()));
+    }
+
+    public void start() {
         httpServer.start();
-        log.info("Server started at " + PORT);
+    }
+
+    /** Закрывает порт, дожидается завершения текущих запросов и останавливает потоки обработки */
+    public void stop() {
+        httpServer.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS))
+                    executor.shutdownNow();
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Server stopped");
+    }
+
+    /** Фактический порт, в том числе когда в настройках указан 0 */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    private void createContext(String path, HttpHandler handler) {
+        httpServer.createContext(path, new InstrumentedHandler(path, handler, metrics));
+    }
+
+    private static ExecutorService createExecutor(ServerConfig config) {
+        return switch (config.getExecutionMode()) {
+            case SINGLE -> null;
+            case POOL -> Executors.newFixedThreadPool(config.getPoolSize(), namedThreads("http-worker-"));
+            case VIRTUAL -> newVirtualThreadPerTaskExecutor();
+        };
+    }
+
+    /** Виртуальные потоки доступны начиная с Java 21, поэтому фабрика ищется во время выполнения */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not available on Java {}, falling back to a cached thread pool",
+                    Runtime.version().feature());
+            return Executors.newCachedThreadPool(namedThreads("http-worker-"));
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
     }
 }
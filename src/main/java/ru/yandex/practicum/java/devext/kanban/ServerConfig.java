@@ -0,0 +1,63 @@
+package ru.yandex.practicum.java.devext.kanban;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/** Настройки {@link HttpTaskServer} */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class ServerConfig {
+
+    /** 0 — любой свободный порт */
+    @Builder.Default
+    private final int port = 8080;
+    /** Длина очереди входящих соединений. 0 — значение по умолчанию системы. */
+    @Builder.Default
+    private final int backlog = 0;
+    /** Пул по умолчанию: менеджер выполняет изменения атомарно, и запросы можно обрабатывать параллельно */
+    @Builder.Default
+    private final ExecutionMode executionMode = ExecutionMode.POOL;
+    /** Размер пула в режиме {@link ExecutionMode#POOL} */
+    @Builder.Default
+    private final int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+    /**
+     * TCP_NODELAY для соединений. Заголовки и тело ответа уходят отдельными пакетами, и без этого флага
+     * алгоритм Нейгла вместе с отложенным ACK клиента добавляет к каждому ответу около 40 мс.
+     * Настройка уровня процесса: применяется {@link HttpTaskServer#configureProcess} через системное свойство,
+     * общее для всех серверов в JVM, и учитывается только до создания первого из них.
+     */
+    @Builder.Default
+    private final boolean tcpNoDelay = true;
+
+    public static ServerConfig defaults() {
+        return ServerConfig.builder().build();
+    }
+
+    /**
+     * Разбирает аргументы командной строки вида {@code --port=8080 --backlog=128 --executor=pool:16 --tcp-nodelay=true}.
+     * Для исполнителя допустимы {@code single}, {@code virtual}, {@code pool} и {@code pool:<размер>}.
+     */
+    public static ServerConfig fromArgs(String[] args) {
+        ServerConfigBuilder builder = ServerConfig.builder();
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2)
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            switch (kv[0]) {
+                case "port" -> builder.port(Integer.parseInt(kv[1]));
+                case "backlog" -> builder.backlog(Integer.parseInt(kv[1]));
+                case "tcp-nodelay" -> builder.tcpNoDelay(Boolean.parseBoolean(kv[1]));
+                case "executor" -> {
+                    String[] parts = kv[1].toLowerCase().split(":");
+                    builder.executionMode(ExecutionMode.valueOf(parts[0].toUpperCase()));
+                    if (parts.length > 1)
+                        builder.poolSize(Integer.parseInt(parts[1]));
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.java.devext.kanban.history;
+
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Потокобезопасная история просмотров без общей блокировки.
+ * Каждый просмотр получает возрастающую метку, задачи упорядочены по метке в {@link ConcurrentSkipListMap}.
+ * Перенос задачи в конец истории выполняется внутри {@link ConcurrentHashMap#compute}, поэтому изменения
+ * одной и той же задачи упорядочены между собой, а изменения разных задач идут параллельно.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+
+    private final AtomicLong stampSeq = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, Task> taskByStamp = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Long> stampById = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(Task t) {
+        if (t != null) {
+            stampById.compute(t.getId(), (id, oldStamp) -> {
+                long stamp = stampSeq.incrementAndGet();
+                taskByStamp.put(stamp, t);
+                if (oldStamp != null)
+                    taskByStamp.remove(oldStamp);
+                return stamp;
+            });
+        }
+    }
+
+    /**
+     * Новая метка вставляется раньше, чем удаляется старая, поэтому задачу, которую переносят в конец
+     * во время обхода, обход не теряет, но может встретить дважды — тогда учитывается более поздний просмотр.
+     */
+    @Override
+    public List<Task> getHistory() {
+        Task[] snapshot = taskByStamp.values().toArray(new Task[0]);
+        Set<Integer> seen = new HashSet<>(snapshot.length * 2);
+        List<Task> history = new ArrayList<>(snapshot.length);
+        for (int i = snapshot.length - 1; i >= 0; i--)
+            if (seen.add(snapshot[i].getId()))
+                history.add(snapshot[i]);
+        Collections.reverse(history);
+        return history;
+    }
+
+    @Override
+    public void remove(Task t) {
+        stampById.computeIfPresent(t.getId(), (id, stamp) -> {
+            taskByStamp.remove(stamp);
+            return null;
+        });
+    }
+
+    @Override
+    public int getSize() {
+        return stampById.size();
+    }
+
+    public void clear() {
+        stampById.keySet().forEach(id -> stampById.computeIfPresent(id, (k, stamp) -> {
+            taskByStamp.remove(stamp);
+            return null;
+        }));
+    }
+}
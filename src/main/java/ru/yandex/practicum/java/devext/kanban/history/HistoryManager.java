@@ -11,4 +11,6 @@ public interface HistoryManager {
     List<Task> getHistory();
 
     void remove(Task element);
+
+    int getSize();
 }
\ No newline at end of file
@@ -63,7 +63,8 @@ public class InMemoryHistoryManager implements HistoryManager {
             } else if (prev != null && next != null) { // Все элементы, кроме первого и последнего. Второй предикат для ясности.
                 prev.next = next;
                 next.prev = prev;
-            }
+            } else if (last == n) // Единственный элемент в истории
+                last = null;
         }
     }
 
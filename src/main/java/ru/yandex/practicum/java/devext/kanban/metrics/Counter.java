@@ -0,0 +1,32 @@
+package ru.yandex.practicum.java.devext.kanban.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/** Монотонно растущий счётчик. {@link LongAdder} не создаёт конкуренции за одну ячейку памяти между потоками. */
+public class Counter implements Metric {
+
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long delta) {
+        value.add(delta);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    public String type() {
+        return "counter";
+    }
+
+    @Override
+    public void writeTo(StringBuilder out, String name, String labels) {
+        out.append(Metric.withLabels(name, labels)).append(' ').append(get()).append('\n');
+    }
+}
@@ -0,0 +1,28 @@
+package ru.yandex.practicum.java.devext.kanban.metrics;
+
+import java.util.function.DoubleSupplier;
+
+
+/** Текущее значение, которое вычисляется при каждом чтении метрик */
+public class Gauge implements Metric {
+
+    private final DoubleSupplier value;
+
+    public Gauge(DoubleSupplier value) {
+        this.value = value;
+    }
+
+    public double get() {
+        return value.getAsDouble();
+    }
+
+    @Override
+    public String type() {
+        return "gauge";
+    }
+
+    @Override
+    public void writeTo(StringBuilder out, String name, String labels) {
+        out.append(Metric.withLabels(name, labels)).append(' ').append(Metric.format(get())).append('\n');
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.java.devext.kanban.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Гистограмма длительностей в секундах с фиксированными границами корзин, как в клиентах Prometheus.
+ * Замер — поиск корзины среди полутора десятков границ и два {@link LongAdder#add}, без блокировок и выделения памяти.
+ */
+public class Histogram implements Metric {
+
+    /** Границы корзин в секундах: от 100 мкс до 10 с */
+    private static final double[] BOUNDS = {
+            0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final long[] BOUNDS_NANOS = new long[BOUNDS.length];
+
+    static {
+        for (int i = 0; i < BOUNDS.length; i++)
+            BOUNDS_NANOS[i] = Math.round(BOUNDS[i] * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /** Последняя корзина — значения больше верхней границы (+Inf) */
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public Histogram() {
+        for (int i = 0; i < buckets.length; i++)
+            buckets[i] = new LongAdder();
+    }
+
+    public void record(long nanos) {
+        int i = 0;
+        while (i < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[i])
+            i++;
+        buckets[i].increment();
+        sumNanos.add(nanos);
+    }
+
+    /** Засекает время до вызова {@link Timer#close()} */
+    public Timer time() {
+        return new Timer(this, System.nanoTime());
+    }
+
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets)
+            count += bucket.sum();
+        return count;
+    }
+
+    @Override
+    public String type() {
+        return "histogram";
+    }
+
+    @Override
+    public void writeTo(StringBuilder out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i].sum();
+            String le = i < BOUNDS.length ? Metric.format(BOUNDS[i]) : "+Inf";
+            out.append(name).append("_bucket{").append(prefix).append("le=\"").append(le).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        out.append(Metric.withLabels(name + "_sum", labels)).append(' ')
+                .append(Metric.format(sumNanos.sum() / 1e9)).append('\n');
+        out.append(Metric.withLabels(name + "_count", labels)).append(' ').append(cumulative).append('\n');
+    }
+
+    public record Timer(Histogram histogram, long startNanos) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+    }
+}
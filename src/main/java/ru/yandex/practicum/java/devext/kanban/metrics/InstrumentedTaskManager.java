@@ -0,0 +1,53 @@
+package ru.yandex.practicum.java.devext.kanban.metrics;
+
+import ru.yandex.practicum.java.devext.kanban.task.management.TaskManager;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Обёртка {@link TaskManager}, которая замеряет длительность каждой операции и считает исключения по типам,
+ * в том числе отказы из-за пересечения по времени. Реализована динамическим прокси, поэтому новые методы
+ * интерфейса замеряются без правок обёртки. Перегрузки одного метода попадают в одну метрику.
+ */
+public final class InstrumentedTaskManager implements InvocationHandler {
+
+    private final TaskManager delegate;
+    private final MetricsRegistry registry;
+    private final Map<Method, Histogram> durations = new HashMap<>();
+
+    private InstrumentedTaskManager(TaskManager delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+        for (Method method : TaskManager.class.getMethods())
+            durations.put(method, registry.histogram("kanban_manager_operation_duration_seconds",
+                    "TaskManager operation latency", "operation", method.getName()));
+    }
+
+    public static TaskManager wrap(TaskManager delegate, MetricsRegistry registry) {
+        return (TaskManager) Proxy.newProxyInstance(TaskManager.class.getClassLoader(),
+                new Class<?>[] {TaskManager.class}, new InstrumentedTaskManager(delegate, registry));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Histogram duration = durations.get(method);
+        long start = System.nanoTime();
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            if (duration != null)
+                registry.counter("kanban_manager_operation_errors_total",
+                        "TaskManager operations that threw, by exception type",
+                        "operation", method.getName(), "exception", e.getCause().getClass().getSimpleName()).increment();
+            throw e.getCause();
+        } finally {
+            if (duration != null)
+                duration.record(System.nanoTime() - start);
+        }
+    }
+}
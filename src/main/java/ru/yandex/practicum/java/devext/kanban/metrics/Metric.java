@@ -0,0 +1,24 @@
+package ru.yandex.practicum.java.devext.kanban.metrics;
+
+/** Метрика, которую {@link MetricsRegistry} выводит в текстовом формате Prometheus */
+public interface Metric {
+
+    /** Тип для строки {@code # TYPE}: counter, gauge или histogram */
+    String type();
+
+    /**
+     * Дописывает строки значений метрики.
+     * @param labels метки в виде {@code a="1",b="2"}, пустая строка — без меток
+     */
+    void writeTo(StringBuilder out, String name, String labels);
+
+    static String withLabels(String name, String labels) {
+        return labels.isEmpty() ? name : name + "{" + labels + "}";
+    }
+
+    static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15)
+            return Long.toString((long) value);
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.java.devext.kanban.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+
+/**
+ * Набор метрик, сгруппированных по имени. Метрики одного имени различаются метками и имеют один тип.
+ * Повторный запрос метрики с теми же именем и метками возвращает уже созданный экземпляр.
+ */
+public class MetricsRegistry {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /** @param labels пары имя, значение метки */
+    public Counter counter(String name, String help, String... labels) {
+        return get(name, help, "counter", labels, Counter::new, Counter.class);
+    }
+
+    public Histogram histogram(String name, String help, String... labels) {
+        return get(name, help, "histogram", labels, Histogram::new, Histogram.class);
+    }
+
+    public Gauge gauge(String name, String help, DoubleSupplier value, String... labels) {
+        return get(name, help, "gauge", labels, () -> new Gauge(value), Gauge.class);
+    }
+
+    /**
+     * Регистрирует существующую метрику, например созданную объектом до подключения к реестру.
+     * Метрика с теми же именем и метками заменяется.
+     */
+    public <M extends Metric> M register(String name, String help, M metric, String... labels) {
+        family(name, help, metric.type(), labels).metrics.put(labelString(labels), metric);
+        return metric;
+    }
+
+    /** Все метрики в текстовом формате Prometheus, семейства по алфавиту */
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+        families.forEach((name, family) -> {
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            family.metrics.forEach((labels, metric) -> metric.writeTo(out, name, labels));
+        });
+        return out.toString();
+    }
+
+    private <M extends Metric> M get(String name, String help, String type, String[] labels,
+                                     Supplier<? extends M> factory, Class<M> metricClass) {
+        Metric metric = family(name, help, type, labels).metrics.computeIfAbsent(labelString(labels), l -> factory.get());
+        if (!metricClass.isInstance(metric))
+            throw new IllegalArgumentException("Metric " + name + " is not a " + type);
+        return metricClass.cast(metric);
+    }
+
+    private Family family(String name, String help, String type, String[] labels) {
+        if (labels.length % 2 != 0)
+            throw new IllegalArgumentException("Labels must be name-value pairs: " + String.join(",", labels));
+        Family family = families.computeIfAbsent(name, n -> new Family(help, type));
+        if (!family.type.equals(type))
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type + ", not a " + type);
+        return family;
+    }
+
+    private static String labelString(String[] labels) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class Family {
+        private final String help;
+        private final String type;
+        private final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+        private Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
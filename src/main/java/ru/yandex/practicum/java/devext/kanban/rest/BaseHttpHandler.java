@@ -2,19 +2,45 @@ package ru.yandex.practicum.java.devext.kanban.rest;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.TaskStatus;
+import ru.yandex.practicum.java.devext.kanban.task.management.Page;
 import ru.yandex.practicum.java.devext.kanban.task.management.TaskManager;
+import ru.yandex.practicum.java.devext.kanban.task.management.VersionConflictException;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import static ru.yandex.practicum.java.devext.kanban.rest.StatusCode.*;
 
 public abstract class BaseHttpHandler implements HttpHandler {
 
+    /** Размер страницы, если в запросе указан только курсор */
+    protected static final int DEFAULT_PAGE_LIMIT = 100;
+    /** Тела не длиннее порога отправляются без сжатия: выигрыш на них меньше затрат на сжатие */
+    protected static final int COMPRESSION_THRESHOLD = 1024;
+    /** Версия, которой не бывает у задач: If-Match с чужим ETag не должен совпасть ни с одной */
+    protected static final long UNMATCHED_VERSION = -1;
+
     protected final TaskManager taskManager;
     protected Gson gson;
+    /** Отличает ETag разных экземпляров сервера: после перезапуска счётчики версий начинаются заново */
+    private final String etagPrefix = Long.toHexString(System.nanoTime() ^ ThreadLocalRandom.current().nextLong());
 
     protected BaseHttpHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
@@ -27,13 +53,212 @@ public abstract class BaseHttpHandler implements HttpHandler {
     }
 
     protected void sendText(HttpExchange ex, String text, StatusCode rCode) throws IOException {
-        byte[] resp = text.getBytes(StandardCharsets.UTF_8);
         ex.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        ex.sendResponseHeaders(rCode.value, resp.length);
-        ex.getResponseBody().write(resp);
+        try (OutputStream body = responseBody(ex, rCode)) {
+            body.write(text.getBytes(StandardCharsets.UTF_8));
+        }
         ex.close();
     }
 
+    /**
+     * Отправляет JSON-массив, сериализуя элементы по одному прямо в тело ответа. Большое тело передаётся
+     * частями (chunked) и сжимается на лету, поэтому ни весь JSON, ни его байтовая копия не собираются в памяти.
+     */
+    protected void sendJson(HttpExchange ex, Iterable<?> items, StatusCode rCode) throws IOException {
+        try (JsonWriter writer = startJson(ex, rCode)) {
+            writeArray(writer, items);
+        }
+        ex.close();
+    }
+
+    /** Открывает поток записи JSON в тело ответа, см. {@link #responseBody(HttpExchange, StatusCode)} */
+    protected JsonWriter startJson(HttpExchange ex, StatusCode rCode) throws IOException {
+        ex.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        return gson.newJsonWriter(
+                new BufferedWriter(new OutputStreamWriter(responseBody(ex, rCode), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Поток тела ответа со сжатием по Accept-Encoding клиента. Заголовки ответа отправляются при первой
+     * записи сверх {@link #COMPRESSION_THRESHOLD} или при закрытии потока, поэтому задавать их нужно до записи.
+     */
+    protected OutputStream responseBody(HttpExchange ex, StatusCode rCode) {
+        ex.getResponseHeaders().set("Vary", "Accept-Encoding");
+        ContentEncoding encoding = ContentEncoding.negotiate(ex.getRequestHeaders().getFirst("Accept-Encoding"));
+        return new CompressingResponseStream(ex, rCode.value, encoding, COMPRESSION_THRESHOLD);
+    }
+
+    protected void writeArray(JsonWriter writer, Iterable<?> items) throws IOException {
+        writer.beginArray();
+        for (Object item : items)
+            gson.toJson(item, item.getClass(), writer);
+        writer.endArray();
+    }
+
+    /** Отправляет страницу списка. Курсор следующей страницы, если она есть, передаётся в заголовке X-Next-Cursor. */
+    protected void sendPage(HttpExchange ex, Page<?> page, StatusCode rCode) throws IOException {
+        addNextCursor(ex, page);
+        sendJson(ex, page.items(), rCode);
+    }
+
+    protected static void addNextCursor(HttpExchange ex, Page<?> page) {
+        if (page.hasNext())
+            ex.getResponseHeaders().add("X-Next-Cursor", String.valueOf(page.nextCursor()));
+    }
+
+    /** Параметры строки запроса. Для повторяющихся параметров остаётся последнее значение. */
+    protected static Map<String, String> queryParams(HttpExchange ex) {
+        Map<String, String> params = new HashMap<>();
+        String query = ex.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty())
+            return params;
+        for (String pair : query.split("&")) {
+            String[] kv = pair.split("=", 2);
+            params.put(URLDecoder.decode(kv[0], StandardCharsets.UTF_8),
+                    kv.length > 1 ? URLDecoder.decode(kv[1], StandardCharsets.UTF_8) : "");
+        }
+        return params;
+    }
+
+    /** Размер страницы: из параметра limit, а если указан только курсор — {@link #DEFAULT_PAGE_LIMIT}. Иначе без ограничения. */
+    protected static int pageLimit(Map<String, String> params) {
+        if (params.containsKey("limit"))
+            return Integer.parseInt(params.get("limit"));
+        return params.containsKey("cursor") ? DEFAULT_PAGE_LIMIT : Integer.MAX_VALUE;
+    }
+
+    protected static Integer intParam(Map<String, String> params, String name) {
+        return params.containsKey(name) ? Integer.valueOf(params.get(name)) : null;
+    }
+
+    /** Список ID через запятую из параметра ids, например {@code ?ids=1,2,3} */
+    protected static List<Integer> idsParam(Map<String, String> params) {
+        String ids = params.get("ids");
+        if (ids == null || ids.isBlank())
+            throw new IllegalArgumentException("Parameter ids is required");
+        return Arrays.stream(ids.split(","))
+                .map(String::trim)
+                .map(Integer::valueOf)
+                .toList();
+    }
+
+    /** Дата-время в формате JSON, например {@code ?notBefore=01.06.2024T09:00:00}. Без параметра — null. */
+    protected static LocalDateTime dateTimeParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        try {
+            return value == null ? null : LocalDateTimeAdapter.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value, e);
+        }
+    }
+
+    /** Длительность в формате ISO-8601, например {@code ?duration=PT1H30M}. Без параметра — null. */
+    protected static Duration durationParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        try {
+            return value == null ? null : Duration.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value, e);
+        }
+    }
+
+    protected static TaskStatus statusParam(Map<String, String> params) {
+        return params.containsKey("status") ? TaskStatus.valueOf(params.get("status").toUpperCase()) : null;
+    }
+
+    /**
+     * Выставляет ETag по версии данных и, если клиент прислал тот же ETag в If-None-Match, отвечает
+     * 304 Not Modified без тела. Версию нужно получить до чтения данных: тогда ETag может оказаться старше
+     * ответа, но никогда не новее, и клиент в худшем случае лишний раз получит полный ответ.
+     * ETag зависит и от кодирования тела, см. {@link #encodingSuffix(HttpExchange)}.
+     * @return true, если ответ 304 уже отправлен
+     */
+    protected boolean notModified(HttpExchange ex, long version) throws IOException {
+        String etag = "\"" + etagPrefix + "-" + version + encodingSuffix(ex) + "\"";
+        ex.getResponseHeaders().set("ETag", etag);
+        String ifNoneMatch = ex.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null)
+            return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+            if (tag.equals(etag) || tag.equals("*")) {
+                // Встроенный HTTP-сервер JDK закрывает соединение после 304, не сообщая об этом клиенту,
+                // и клиент отправлял следующий запрос в уже закрытое соединение
+                ex.getResponseHeaders().set("Connection", "close");
+                ex.sendResponseHeaders(NOT_MODIFIED.value, -1);
+                ex.close();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** ETag задачи по её версии и кодированию ответа, см. {@link #ifMatchVersion(HttpExchange)} */
+    protected String entityTag(HttpExchange ex, Task task) {
+        return "\"" + etagPrefix + "-v" + task.getVersion() + encodingSuffix(ex) + "\"";
+    }
+
+    /**
+     * Окончание ETag по кодированию, выбранному для ответа: сильный ETag должен различать сжатое и несжатое
+     * тело. При одной версии данных и одном кодировании тело одинаково, в том числе ниже порога сжатия.
+     */
+    private static String encodingSuffix(HttpExchange ex) {
+        ContentEncoding encoding = ContentEncoding.negotiate(ex.getRequestHeaders().getFirst("Accept-Encoding"));
+        return encoding == ContentEncoding.IDENTITY ? "" : "-" + encoding.token;
+    }
+
+    /**
+     * Ожидаемая версия задачи из заголовка If-Match: первый ETag, выданный {@link #entityTag(HttpExchange, Task)}
+     * этого экземпляра сервера, с любым кодированием. Слабые ETag и ETag другого экземпляра не совпадают ни с одной версией.
+     * @return null, если заголовка нет или в нём {@code *}; {@link #UNMATCHED_VERSION}, если подходящего ETag нет
+     */
+    protected Long ifMatchVersion(HttpExchange ex) {
+        String ifMatch = ex.getRequestHeaders().getFirst("If-Match");
+        if (ifMatch == null)
+            return null;
+        String prefix = "\"" + etagPrefix + "-v";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*"))
+                return null;
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                String version = tag.substring(prefix.length(), tag.length() - 1);
+                for (ContentEncoding encoding : ContentEncoding.values())
+                    if (version.endsWith("-" + encoding.token)) {
+                        version = version.substring(0, version.length() - encoding.token.length() - 1);
+                        break;
+                    }
+                try {
+                    return Long.parseLong(version);
+                } catch (NumberFormatException e) {
+                    // не наш ETag
+                }
+            }
+        }
+        return UNMATCHED_VERSION;
+    }
+
+    /**
+     * Обновляет задачу с проверкой версии. С If-Match ожидаемая версия берётся из заголовка, и при конфликте
+     * ответ 412 Precondition Failed; без него — из поля version тела, и при конфликте ответ 409 Conflict.
+     * @return true, если задача обновлена; иначе ответ с ошибкой уже отправлен
+     */
+    protected <T extends Task> boolean updateVersioned(HttpExchange ex, T task, Consumer<T> update) throws IOException {
+        Long expected = ifMatchVersion(ex);
+        if (expected != null)
+            task.setVersion(expected);
+        try {
+            update.accept(task);
+        } catch (VersionConflictException e) {
+            sendEmptyResponse(ex, expected != null ? PRECONDITION_FAILED : CONFLICT);
+            return false;
+        }
+        ex.getResponseHeaders().set("ETag", entityTag(ex, task));
+        return true;
+    }
+
     protected void sendEmptyResponse(HttpExchange ex, StatusCode statusCode) throws IOException {
         ex.sendResponseHeaders(statusCode.value, 0);
         ex.close();
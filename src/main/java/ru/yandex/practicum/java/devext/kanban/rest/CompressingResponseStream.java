@@ -0,0 +1,78 @@
+package ru.yandex.practicum.java.devext.kanban.rest;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * Тело ответа с отложенной отправкой заголовков. Первые {@code threshold} байт копятся в буфере:
+ * если тело в него уместилось, оно уходит как есть с известной длиной. Иначе заголовки отправляются
+ * для передачи частями (chunked), а буфер и остаток тела по мере записи сжимаются выбранным кодированием.
+ */
+class CompressingResponseStream extends OutputStream {
+
+    private final HttpExchange ex;
+    private final int rCode;
+    private final ContentEncoding encoding;
+    private final int threshold;
+    private ByteArrayOutputStream buffer;
+    private OutputStream out;
+
+    CompressingResponseStream(HttpExchange ex, int rCode, ContentEncoding encoding, int threshold) {
+        this.ex = ex;
+        this.rCode = rCode;
+        this.encoding = encoding;
+        this.threshold = threshold;
+        buffer = new ByteArrayOutputStream(Math.min(threshold, 8192));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (out != null) {
+            out.write(b, off, len);
+            return;
+        }
+        buffer.write(b, off, len);
+        if (buffer.size() > threshold)
+            startStreaming();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null)
+            out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) {
+            ex.sendResponseHeaders(rCode, buffer.size() == 0 ? -1 : buffer.size());
+            out = ex.getResponseBody();
+            buffer.writeTo(out);
+        }
+        out.close();
+    }
+
+    private void startStreaming() throws IOException {
+        OutputStream body = ex.getResponseBody();
+        if (encoding != ContentEncoding.IDENTITY)
+            ex.getResponseHeaders().set("Content-Encoding", encoding.token);
+        ex.sendResponseHeaders(rCode, 0);
+        out = switch (encoding) {
+            case GZIP -> new GZIPOutputStream(body, 8192);
+            case DEFLATE -> new DeflaterOutputStream(body);
+            case IDENTITY -> body;
+        };
+        buffer.writeTo(out);
+        buffer = null;
+    }
+}
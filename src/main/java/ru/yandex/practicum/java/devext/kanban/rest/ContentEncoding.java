@@ -0,0 +1,51 @@
+package ru.yandex.practicum.java.devext.kanban.rest;
+
+/** Кодирования тела ответа, которые умеет сервер, в порядке предпочтения */
+public enum ContentEncoding {
+    GZIP("gzip"),
+    DEFLATE("deflate"),
+    IDENTITY("identity");
+
+    public final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Выбирает кодирование по заголовку Accept-Encoding: первое из поддерживаемых, которое клиент
+     * принимает с ненулевым q. {@code *} относится только к кодированиям, не названным в заголовке явно,
+     * поэтому {@code gzip;q=0, *} gzip не разрешает. Если заголовка нет или подходящего кодирования нет — {@link #IDENTITY}.
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return IDENTITY;
+        Boolean gzip = null, deflate = null;
+        boolean any = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String token = params[0].trim().toLowerCase();
+            boolean accepted = true;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            switch (token) {
+                case "gzip", "x-gzip" -> gzip = accepted || Boolean.TRUE.equals(gzip);
+                case "deflate" -> deflate = accepted || Boolean.TRUE.equals(deflate);
+                case "*" -> any |= accepted;
+                default -> {
+                }
+            }
+        }
+        if (gzip != null ? gzip : any)
+            return GZIP;
+        return (deflate != null ? deflate : any) ? DEFLATE : IDENTITY;
+    }
+}
@@ -1,16 +1,20 @@
 package ru.yandex.practicum.java.devext.kanban.rest;
 
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import lombok.extern.slf4j.Slf4j;
 import ru.yandex.practicum.java.devext.kanban.task.Epic;
 import ru.yandex.practicum.java.devext.kanban.task.SubTask;
+import ru.yandex.practicum.java.devext.kanban.task.management.EpicSummary;
+import ru.yandex.practicum.java.devext.kanban.task.management.CollectionKind;
 import ru.yandex.practicum.java.devext.kanban.task.management.ExecutionDateTimeOverlapException;
 import ru.yandex.practicum.java.devext.kanban.task.management.NotFoundException;
+import ru.yandex.practicum.java.devext.kanban.task.management.Page;
 import ru.yandex.practicum.java.devext.kanban.task.management.TaskManager;
 import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.ManagerSaveException;
 import java.io.IOException;
-import java.util.List;
+import java.util.Map;
 import static java.nio.charset.StandardCharsets.*;
 import static ru.yandex.practicum.java.devext.kanban.rest.RequestMethod.*;
 import static ru.yandex.practicum.java.devext.kanban.rest.StatusCode.*;
@@ -30,11 +34,17 @@ public class EpicHandler extends BaseHttpHandler {
         Epic epic;
         try {
             switch (pathSegments.length) {
-                case 1 -> { // /epics
+                case 1 -> { // /epics?status=&limit=&cursor=
                     switch (method) {
                         case GET -> {
-                            List<Epic> epics = taskManager.getEpics();
-                            sendText(ex, gson.toJson(epics), OK);
+                            if (notModified(ex, taskManager.getVersion(CollectionKind.EPICS)))
+                                return;
+                            Map<String, String> params = queryParams(ex);
+                            if (params.isEmpty())
+                                sendJson(ex, taskManager.getEpics(), OK);
+                            else
+                                sendPage(ex, taskManager.getEpics(statusParam(params), pageLimit(params),
+                                        intParam(params, "cursor")), OK);
                         }
                         case POST -> {
                             epic = gson.fromJson(
@@ -66,20 +76,26 @@ public class EpicHandler extends BaseHttpHandler {
                         default -> sendEmptyResponse(ex, METHOD_NOT_ALLOWED);
                     }
                 }
-                case 3 -> { // /epics/{id}/subtasks
+                case 3 -> { // /epics/{id}/subtasks?status=&limit=&cursor=&rollup=
                     int epicId = Integer.parseInt(pathSegments[1]);
                     if (method == GET && pathSegments[2].equals("subtasks")) {
-                        epic = taskManager.getEpicById(epicId);
-                        List<SubTask> subTasks = taskManager.getSubTasks().stream()
-                                .filter(st -> epic.getSubTaskIds().contains(st.getId()))
-                                .toList();
-                        sendText(ex, gson.toJson(subTasks), OK);
+                        taskManager.getEpicById(epicId);
+                        if (notModified(ex, taskManager.getVersion(CollectionKind.SUBTASKS)
+                                + taskManager.getVersion(CollectionKind.EPICS)))
+                            return;
+                        Map<String, String> params = queryParams(ex);
+                        Page<SubTask> page = taskManager.getSubTasks(statusParam(params), epicId, pageLimit(params),
+                                intParam(params, "cursor"));
+                        if (Boolean.parseBoolean(params.get("rollup")))
+                            sendWithRollup(ex, taskManager.getEpicSummary(epicId), page);
+                        else
+                            sendPage(ex, page, OK);
                     } else
                         sendEmptyResponse(ex, BAD_REQUEST);
                 }
                 default -> sendEmptyResponse(ex, BAD_REQUEST);
             }
-        } catch (JsonSyntaxException | NumberFormatException e) {
+        } catch (JsonSyntaxException | IllegalArgumentException e) {
             sendEmptyResponse(ex, BAD_REQUEST);
         } catch (ExecutionDateTimeOverlapException e) {
             sendEmptyResponse(ex, NOT_ACCEPTABLE);
@@ -89,4 +105,18 @@ public class EpicHandler extends BaseHttpHandler {
             sendEmptyResponse(ex, INTERNAL_SERVER_ERROR);
         }
     }
+
+    /** Ответ вида {@code {"rollup": {...}, "subtasks": [...]}}, подзадачи записываются потоково */
+    private void sendWithRollup(HttpExchange ex, EpicSummary rollup, Page<SubTask> page) throws IOException {
+        addNextCursor(ex, page);
+        try (JsonWriter writer = startJson(ex, OK)) {
+            writer.beginObject();
+            writer.name("rollup");
+            gson.toJson(rollup, EpicSummary.class, writer);
+            writer.name("subtasks");
+            writeArray(writer, page.items());
+            writer.endObject();
+        }
+        ex.close();
+    }
 }
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.java.devext.kanban.rest;
+
+import java.time.LocalDateTime;
+
+/** Ответ /tasks/free-slot: свободный интервал [startDateTime, endDateTime) */
+record FreeSlot(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.java.devext.kanban.rest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import ru.yandex.practicum.java.devext.kanban.metrics.Histogram;
+import ru.yandex.practicum.java.devext.kanban.metrics.MetricsRegistry;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+
+/** Обёртка обработчика: время обработки и число запросов по методу и коду ответа */
+public class InstrumentedHandler implements HttpHandler {
+
+    private static final Set<String> KNOWN_METHODS = Arrays.stream(RequestMethod.values())
+            .map(Enum::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final HttpHandler delegate;
+    private final String context;
+    private final MetricsRegistry registry;
+    private final Histogram duration;
+
+    public InstrumentedHandler(String context, HttpHandler delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.context = context;
+        this.registry = registry;
+        duration = registry.histogram("http_request_duration_seconds", "HTTP request handling latency",
+                "handler", context);
+    }
+
+    /** Метод и код ответа берутся из ограниченного набора значений, чтобы клиент не мог плодить новые метрики */
+    @Override
+    public void handle(HttpExchange ex) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.handle(ex);
+        } finally {
+            duration.record(System.nanoTime() - start);
+            String method = KNOWN_METHODS.contains(ex.getRequestMethod()) ? ex.getRequestMethod() : "OTHER";
+            int code = ex.getResponseCode();
+            registry.counter("http_requests_total", "HTTP requests by handler, method and response code",
+                    "handler", context, "method", method, "code", code < 0 ? "none" : String.valueOf(code)).increment();
+        }
+    }
+}
@@ -26,6 +26,11 @@ public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
             jsonReader.nextNull();
             return null;
         }
-        return LocalDateTime.parse(jsonReader.nextString(), dtf);
+        return parse(jsonReader.nextString());
+    }
+
+    /** Разбирает дату-время в том же формате, что и в JSON, например для параметров строки запроса */
+    public static LocalDateTime parse(String value) {
+        return LocalDateTime.parse(value, dtf);
     }
 }
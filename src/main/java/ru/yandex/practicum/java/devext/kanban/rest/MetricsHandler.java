@@ -0,0 +1,37 @@
+package ru.yandex.practicum.java.devext.kanban.rest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import ru.yandex.practicum.java.devext.kanban.metrics.MetricsRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import static ru.yandex.practicum.java.devext.kanban.rest.StatusCode.METHOD_NOT_ALLOWED;
+import static ru.yandex.practicum.java.devext.kanban.rest.StatusCode.OK;
+
+
+/** Метрики сервера в текстовом формате Prometheus */
+public class MetricsHandler implements HttpHandler {
+
+    private final MetricsRegistry registry;
+
+    public MetricsHandler(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void handle(HttpExchange ex) throws IOException {
+        if (!RequestMethod.GET.name().equals(ex.getRequestMethod())) {
+            ex.sendResponseHeaders(METHOD_NOT_ALLOWED.value, -1);
+            ex.close();
+            return;
+        }
+        byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", MetricsRegistry.CONTENT_TYPE);
+        ex.sendResponseHeaders(OK.value, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+        ex.close();
+    }
+}
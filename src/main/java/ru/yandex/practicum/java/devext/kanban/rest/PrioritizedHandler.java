@@ -1,11 +1,14 @@
 package ru.yandex.practicum.java.devext.kanban.rest;
 
 import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.practicum.java.devext.kanban.task.management.CollectionKind;
 import ru.yandex.practicum.java.devext.kanban.task.management.TaskManager;
 import java.io.IOException;
+import java.util.Map;
 import static ru.yandex.practicum.java.devext.kanban.rest.StatusCode.*;
 
 
+/** /prioritized?from=&to=&limit=: задачи по приоритету, без параметров — все */
 public class PrioritizedHandler extends BaseHttpHandler {
 
     public PrioritizedHandler(TaskManager taskManager) {
@@ -16,7 +19,19 @@ public class PrioritizedHandler extends BaseHttpHandler {
     public void handle(HttpExchange ex) throws IOException {
         RequestMethod method = RequestMethod.valueOf(ex.getRequestMethod());
         if (method == RequestMethod.GET) {
-            sendText(ex, gson.toJson(taskManager.getPrioritizedTasks()), OK);
+            if (notModified(ex, taskManager.getVersion(CollectionKind.PRIORITIZED)))
+                return;
+            Map<String, String> params = queryParams(ex);
+            try {
+                // Копия под чтением менеджера: живое представление могло бы показать часть пакетного изменения
+                if (params.isEmpty())
+                    sendJson(ex, taskManager.getPrioritizedTasks(), OK);
+                else
+                    sendJson(ex, taskManager.getPrioritizedTasks(dateTimeParam(params, "from"),
+                            dateTimeParam(params, "to"), pageLimit(params)), OK);
+            } catch (IllegalArgumentException e) {
+                sendEmptyResponse(ex, BAD_REQUEST);
+            }
         } else
             sendEmptyResponse(ex, METHOD_NOT_ALLOWED);
     }
@@ -4,10 +4,13 @@ public enum StatusCode {
 
     OK(200),
     CREATED(201),
+    NOT_MODIFIED(304),
     BAD_REQUEST(400),
     NOT_FOUND(404),
     METHOD_NOT_ALLOWED(405),
     NOT_ACCEPTABLE(406),
+    CONFLICT(409),
+    PRECONDITION_FAILED(412),
     INTERNAL_SERVER_ERROR(500);
 
     public final int value;
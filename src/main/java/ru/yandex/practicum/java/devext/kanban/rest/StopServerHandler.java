@@ -2,25 +2,23 @@ package ru.yandex.practicum.java.devext.kanban.rest;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import com.sun.net.httpserver.HttpServer;
-import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.java.devext.kanban.HttpTaskServer;
 
 import java.io.IOException;
 
-@Slf4j
 public class StopServerHandler implements HttpHandler {
 
-    private final HttpServer server;
+    private final HttpTaskServer server;
 
-    public StopServerHandler(HttpServer server) {
+    public StopServerHandler(HttpTaskServer server) {
         this.server = server;
     }
 
+    /** Сервер останавливается на отдельном потоке: остановка ждёт завершения потоков обработки, в том числе этого */
     @Override
     public void handle(HttpExchange ex) throws IOException {
         ex.sendResponseHeaders(200, 0);
         ex.close();
-        server.stop(0);
-        log.info("Server stopped");
+        new Thread(server::stop, "http-server-stop").start();
     }
 }
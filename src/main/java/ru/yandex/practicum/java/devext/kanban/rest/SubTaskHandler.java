@@ -4,12 +4,14 @@ import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
 import lombok.extern.slf4j.Slf4j;
 import ru.yandex.practicum.java.devext.kanban.task.SubTask;
+import ru.yandex.practicum.java.devext.kanban.task.management.CollectionKind;
 import ru.yandex.practicum.java.devext.kanban.task.management.ExecutionDateTimeOverlapException;
 import ru.yandex.practicum.java.devext.kanban.task.management.NotFoundException;
 import ru.yandex.practicum.java.devext.kanban.task.management.TaskManager;
 import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.ManagerSaveException;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import static java.nio.charset.StandardCharsets.*;
 import static ru.yandex.practicum.java.devext.kanban.rest.StatusCode.*;
 
@@ -27,12 +29,22 @@ public class SubTaskHandler extends BaseHttpHandler {
         String[] pathSegments = ex.getRequestURI().getPath().substring(1).split("/");
         SubTask subTask;
         try {
+            if (pathSegments.length == 2 && pathSegments[1].equals("batch")) {
+                handleBatch(ex, method);
+                return;
+            }
             switch (pathSegments.length) {
-                case 1 -> { // /subtasks
+                case 1 -> { // /subtasks?status=&epicId=&limit=&cursor=
                     switch (method) {
                         case GET -> {
-                            List<SubTask> subTasks = taskManager.getSubTasks();
-                            sendText(ex, gson.toJson(subTasks), OK);
+                            if (notModified(ex, taskManager.getVersion(CollectionKind.SUBTASKS)))
+                                return;
+                            Map<String, String> params = queryParams(ex);
+                            if (params.isEmpty())
+                                sendJson(ex, taskManager.getSubTasks(), OK);
+                            else
+                                sendPage(ex, taskManager.getSubTasks(statusParam(params), intParam(params, "epicId"), pageLimit(params),
+                                        intParam(params, "cursor")), OK);
                         }
                         case POST -> {
                             subTask = gson.fromJson(
@@ -53,6 +65,7 @@ public class SubTaskHandler extends BaseHttpHandler {
                     switch (method) {
                         case GET -> {
                             subTask = taskManager.getSubTaskById(subTaskId);
+                            ex.getResponseHeaders().set("ETag", entityTag(ex, subTask));
                             sendText(ex, gson.toJson(subTask), OK);
                         }
                         case PUT -> {
@@ -60,7 +73,8 @@ public class SubTaskHandler extends BaseHttpHandler {
                                     new String(ex.getRequestBody().readAllBytes(), UTF_8),
                                     SubTask.class
                             );
-                            taskManager.updateSubTask(subTask);
+                            if (!updateVersioned(ex, subTask, taskManager::updateSubTask))
+                                return;
                             sendEmptyResponse(ex, CREATED);
                             log.info("Subtask successfully updated:\n{}", subTask);
                         }
@@ -75,7 +89,7 @@ public class SubTaskHandler extends BaseHttpHandler {
                 }
                 default -> sendEmptyResponse(ex, BAD_REQUEST);
             }
-        } catch (JsonSyntaxException | NumberFormatException e) {
+        } catch (JsonSyntaxException | IllegalArgumentException e) {
             sendEmptyResponse(ex, BAD_REQUEST);
         } catch (ExecutionDateTimeOverlapException e) {
             sendEmptyResponse(ex, NOT_ACCEPTABLE);
@@ -85,4 +99,31 @@ public class SubTaskHandler extends BaseHttpHandler {
             sendEmptyResponse(ex, INTERNAL_SERVER_ERROR);
         }
     }
+
+    /** /subtasks/batch: POST — массив новых подзадач, GET и DELETE — по списку {@code ?ids=1,2,3} */
+    private void handleBatch(HttpExchange ex, RequestMethod method) throws IOException {
+        switch (method) {
+            case GET -> sendJson(ex, taskManager.getSubTasksByIds(idsParam(queryParams(ex))), OK);
+            case POST -> {
+                SubTask[] batch = gson.fromJson(new String(ex.getRequestBody().readAllBytes(), UTF_8), SubTask[].class);
+                if (batch == null) {
+                    sendEmptyResponse(ex, BAD_REQUEST);
+                    return;
+                }
+                for (SubTask t : batch)
+                    if (t.getId() == -1)
+                        t.setId(taskManager.getNextId());
+                taskManager.addSubTasks(List.of(batch));
+                sendJson(ex, List.of(batch), CREATED);
+                log.info("{} subtasks successfully created", batch.length);
+            }
+            case DELETE -> {
+                List<Integer> ids = idsParam(queryParams(ex));
+                taskManager.removeSubTasks(ids);
+                sendEmptyResponse(ex, OK);
+                log.info("Subtasks successfully removed: {}", ids);
+            }
+            default -> sendEmptyResponse(ex, METHOD_NOT_ALLOWED);
+        }
+    }
 }
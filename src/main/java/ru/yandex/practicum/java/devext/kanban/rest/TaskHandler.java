@@ -4,12 +4,17 @@ import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
 import lombok.extern.slf4j.Slf4j;
 import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.management.CollectionKind;
 import ru.yandex.practicum.java.devext.kanban.task.management.ExecutionDateTimeOverlapException;
 import ru.yandex.practicum.java.devext.kanban.task.management.NotFoundException;
 import ru.yandex.practicum.java.devext.kanban.task.management.TaskManager;
 import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.ManagerSaveException;
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import static java.nio.charset.StandardCharsets.*;
 import static ru.yandex.practicum.java.devext.kanban.rest.StatusCode.*;
 
@@ -27,12 +32,26 @@ public class TaskHandler extends BaseHttpHandler {
         String[] pathSegments = ex.getRequestURI().getPath().substring(1).split("/");
         Task task;
         try {
+            if (pathSegments.length == 2 && pathSegments[1].equals("batch")) {
+                handleBatch(ex, method);
+                return;
+            }
+            if (pathSegments.length == 2 && pathSegments[1].equals("free-slot")) {
+                handleFreeSlot(ex, method);
+                return;
+            }
             switch (pathSegments.length) {
-                case 1 -> { // /tasks
+                case 1 -> { // /tasks?status=&limit=&cursor=
                     switch (method) {
                         case GET -> {
-                            List<Task> tasks = taskManager.getTasks();
-                            sendText(ex, gson.toJson(tasks), OK);
+                            if (notModified(ex, taskManager.getVersion(CollectionKind.TASKS)))
+                                return;
+                            Map<String, String> params = queryParams(ex);
+                            if (params.isEmpty())
+                                sendJson(ex, taskManager.getTasks(), OK);
+                            else
+                                sendPage(ex, taskManager.getTasks(statusParam(params), pageLimit(params),
+                                        intParam(params, "cursor")), OK);
                         }
                         case POST -> {
                             String rqBody = new String(ex.getRequestBody().readAllBytes(), UTF_8);
@@ -51,6 +70,7 @@ public class TaskHandler extends BaseHttpHandler {
                     switch (method) {
                         case GET -> {
                             task = taskManager.getTaskById(taskId);
+                            ex.getResponseHeaders().set("ETag", entityTag(ex, task));
                             sendText(ex, gson.toJson(task), OK);
                         }
                         case PUT -> {
@@ -58,7 +78,8 @@ public class TaskHandler extends BaseHttpHandler {
                                     new String(ex.getRequestBody().readAllBytes(), UTF_8),
                                     Task.class
                             );
-                            taskManager.updateTask(task);
+                            if (!updateVersioned(ex, task, taskManager::updateTask))
+                                return;
                             sendEmptyResponse(ex, CREATED);
                             log.info("Task successfully updated:\n{}", task);
                         }
@@ -73,7 +94,7 @@ public class TaskHandler extends BaseHttpHandler {
                 }
                 default -> sendEmptyResponse(ex, BAD_REQUEST);
             }
-        } catch (JsonSyntaxException | NumberFormatException e) {
+        } catch (JsonSyntaxException | IllegalArgumentException e) {
             sendEmptyResponse(ex, BAD_REQUEST);
         } catch (ExecutionDateTimeOverlapException e) {
             sendEmptyResponse(ex, NOT_ACCEPTABLE);
@@ -83,4 +104,63 @@ public class TaskHandler extends BaseHttpHandler {
             sendEmptyResponse(ex, INTERNAL_SERVER_ERROR);
         }
     }
+
+    /** /tasks/batch: POST — массив новых задач, GET и DELETE — по списку {@code ?ids=1,2,3} */
+    private void handleBatch(HttpExchange ex, RequestMethod method) throws IOException {
+        switch (method) {
+            case GET -> sendJson(ex, taskManager.getTasksByIds(idsParam(queryParams(ex))), OK);
+            case POST -> {
+                Task[] batch = gson.fromJson(new String(ex.getRequestBody().readAllBytes(), UTF_8), Task[].class);
+                if (batch == null) {
+                    sendEmptyResponse(ex, BAD_REQUEST);
+                    return;
+                }
+                for (Task t : batch)
+                    if (t.getId() == -1)
+                        t.setId(taskManager.getNextId());
+                taskManager.addTasks(List.of(batch));
+                sendJson(ex, List.of(batch), CREATED);
+                log.info("{} tasks successfully created", batch.length);
+            }
+            case DELETE -> {
+                List<Integer> ids = idsParam(queryParams(ex));
+                taskManager.removeTasks(ids);
+                sendEmptyResponse(ex, OK);
+                log.info("Tasks successfully removed: {}", ids);
+            }
+            default -> sendEmptyResponse(ex, METHOD_NOT_ALLOWED);
+        }
+    }
+
+    /**
+     * /tasks/free-slot?duration=PT1H&notBefore=&notAfter=: GET — ближайший свободный интервал
+     * или 404, если до notAfter его нет; POST — добавляет задачу из тела в этот интервал, её длительность
+     * берётся из задачи, а при отсутствии интервала ответ 406.
+     */
+    private void handleFreeSlot(HttpExchange ex, RequestMethod method) throws IOException {
+        Map<String, String> params = queryParams(ex);
+        LocalDateTime notBefore = dateTimeParam(params, "notBefore");
+        LocalDateTime notAfter = dateTimeParam(params, "notAfter");
+        switch (method) {
+            case GET -> {
+                Duration duration = durationParam(params, "duration");
+                if (duration == null)
+                    throw new IllegalArgumentException("Parameter duration is required");
+                Optional<LocalDateTime> start = taskManager.findFreeSlot(duration, notBefore, notAfter);
+                if (start.isPresent())
+                    sendText(ex, gson.toJson(new FreeSlot(start.get(), start.get().plus(duration))), OK);
+                else
+                    sendEmptyResponse(ex, NOT_FOUND);
+            }
+            case POST -> {
+                Task task = gson.fromJson(new String(ex.getRequestBody().readAllBytes(), UTF_8), Task.class);
+                if (task.getId() == -1)
+                    task.setId(taskManager.getNextId());
+                taskManager.addTaskToFreeSlot(task, notBefore, notAfter);
+                sendText(ex, gson.toJson(task), CREATED);
+                log.info("Task successfully scheduled:\n{}", task);
+            }
+            default -> sendEmptyResponse(ex, METHOD_NOT_ALLOWED);
+        }
+    }
 }
@@ -1,40 +1,99 @@
 package ru.yandex.practicum.java.devext.kanban.task;
 
+import com.google.gson.annotations.JsonAdapter;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collection;
 
 @Getter
+@JsonAdapter(TaskTypeAdapterFactory.class)
 public class Epic extends Task {
 
-    private final Set<Integer> subTaskIds;
-    @Setter
-    private LocalDateTime endDateTime;
+    private final IntSet subTaskIds;
+    /**
+     * Сроки эпика вычисляются по подзадачам и публикуются одним неизменяемым значением: читатель не увидит
+     * начало от одного пересчёта, а длительность или окончание — от другого. null — сроки не заданы.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile Timeline timeline;
 
     public Epic(int id, String name) {
         super(id, name);
-        subTaskIds = new HashSet<>();
+        subTaskIds = new IntSet();
     }
 
     public Epic(String name) {
         super(name);
-        subTaskIds = new HashSet<>();
+        subTaskIds = new IntSet();
     }
 
     public void bindSubTask(SubTask subTask) {
         subTaskIds.add(subTask.getId());
     }
 
+    /** Привязывает пакет подзадач одним копированием массива ID */
+    public void bindSubTasks(Collection<? extends SubTask> subTasks) {
+        subTaskIds.addAll(subTasks.stream().mapToInt(SubTask::getId).toArray());
+    }
+
     public void unbindSubTask(SubTask subTask) {
         subTaskIds.remove(subTask.getId());
     }
 
+    /** Задаёт начало, длительность и окончание разом */
+    public void setTimeline(LocalDateTime start, Duration duration, LocalDateTime end) {
+        timeline = new Timeline(EpochSeconds.of(start), EpochSeconds.of(duration), EpochSeconds.of(end));
+    }
+
+    @Override
+    public long getStartEpochSecond() {
+        return timeline().start();
+    }
+
+    @Override
+    public long getDurationSeconds() {
+        return timeline().duration();
+    }
+
+    @Override
+    public long getEndEpochSecond() {
+        return timeline().end();
+    }
+
+    @Override
+    public boolean isScheduled() {
+        Timeline t = timeline();
+        return t.start() != EpochSeconds.NONE && t.duration() != EpochSeconds.NONE;
+    }
+
     @Override
-    public LocalDateTime getEndDateTime() {
-        return endDateTime;
+    public LocalDateTime getStartDateTime() {
+        return EpochSeconds.toDateTime(getStartEpochSecond());
+    }
+
+    @Override
+    public void setStartDateTime(LocalDateTime startDateTime) {
+        Timeline t = timeline();
+        timeline = new Timeline(EpochSeconds.of(startDateTime), t.duration(), t.end());
+    }
+
+    @Override
+    public Duration getDuration() {
+        return EpochSeconds.toDuration(getDurationSeconds());
+    }
+
+    @Override
+    public void setDuration(Duration duration) {
+        Timeline t = timeline();
+        timeline = new Timeline(t.start(), EpochSeconds.of(duration), t.end());
+    }
+
+    public void setEndDateTime(LocalDateTime endDateTime) {
+        Timeline t = timeline();
+        timeline = new Timeline(t.start(), t.duration(), EpochSeconds.of(endDateTime));
     }
 
     @Override
@@ -46,4 +105,14 @@ public class Epic extends Task {
                 ", status=" + status +
                 '}';
     }
+
+    /** Поле читается и из конструктора Task, до инициализации полей эпика */
+    private Timeline timeline() {
+        Timeline t = timeline;
+        return t != null ? t : Timeline.NONE;
+    }
+
+    private record Timeline(long start, long duration, long end) {
+        static final Timeline NONE = new Timeline(EpochSeconds.NONE, EpochSeconds.NONE, EpochSeconds.NONE);
+    }
 }
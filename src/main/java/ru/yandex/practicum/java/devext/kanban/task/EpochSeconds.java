@@ -0,0 +1,40 @@
+package ru.yandex.practicum.java.devext.kanban.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+
+/**
+ * Компактное представление времени в задачах и индексах: момент — секунды от 1970-01-01T00:00 без учёта
+ * часового пояса, длительность — секунды. Доли секунды отбрасываются, как и в JSON и CSV.
+ * Отсутствующее значение — {@link #NONE}.
+ */
+public final class EpochSeconds {
+
+    public static final long NONE = Long.MIN_VALUE;
+
+    private EpochSeconds() {
+    }
+
+    public static long of(LocalDateTime dateTime) {
+        return dateTime == null ? NONE : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /** Наименьшая целая секунда, не раньше заданного момента: для сравнения с границей интервала */
+    public static long ceil(LocalDateTime dateTime) {
+        return dateTime == null ? NONE : of(dateTime) + (dateTime.getNano() > 0 ? 1 : 0);
+    }
+
+    public static long of(Duration duration) {
+        return duration == null ? NONE : duration.getSeconds();
+    }
+
+    public static LocalDateTime toDateTime(long epochSecond) {
+        return epochSecond == NONE ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    public static Duration toDuration(long seconds) {
+        return seconds == NONE ? null : Duration.ofSeconds(seconds);
+    }
+}
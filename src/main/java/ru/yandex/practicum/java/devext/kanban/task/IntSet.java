@@ -0,0 +1,136 @@
+package ru.yandex.practicum.java.devext.kanban.task;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+
+/**
+ * Компактное множество int без упаковки: элементы хранятся по возрастанию в массиве точного размера,
+ * около 4 байт на элемент против ~48 байт у {@link java.util.HashSet} (Integer и узел HashMap).
+ * Поиск — двоичный, изменение копирует массив, поэтому множество рассчитано на небольшие наборы
+ * вроде ID подзадач эпика. Много элементов сразу добавляются через {@link #addAll(int...)} за одно копирование. Изменять множество нужно из одного потока, читать можно одновременно с изменением:
+ * чтение и обход видят целый снимок.
+ */
+public class IntSet extends AbstractSet<Integer> {
+
+    private static final int[] EMPTY = {};
+
+    private volatile int[] elements = EMPTY;
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(elements, value) >= 0;
+    }
+
+    public boolean add(int value) {
+        int[] current = elements;
+        int i = Arrays.binarySearch(current, value);
+        if (i >= 0)
+            return false;
+        int at = -i - 1;
+        int[] updated = new int[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, at);
+        updated[at] = value;
+        System.arraycopy(current, at, updated, at + 1, current.length - at);
+        elements = updated;
+        return true;
+    }
+
+    /** Добавляет элементы слиянием с текущими за O(n + k log k), а не копированием массива на каждый элемент */
+    public boolean addAll(int... values) {
+        if (values.length == 0)
+            return false;
+        int[] current = elements;
+        int[] added = values.clone();
+        Arrays.sort(added);
+        int[] merged = new int[current.length + added.length];
+        int i = 0, j = 0, n = 0;
+        while (i < current.length || j < added.length) {
+            int value = j == added.length || i < current.length && current[i] <= added[j] ? current[i++] : added[j++];
+            if (n == 0 || merged[n - 1] != value)
+                merged[n++] = value;
+        }
+        if (n == current.length)
+            return false;
+        elements = n == merged.length ? merged : Arrays.copyOf(merged, n);
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int[] current = elements;
+        int at = Arrays.binarySearch(current, value);
+        if (at < 0)
+            return false;
+        int[] updated = current.length == 1 ? EMPTY : new int[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, at);
+        System.arraycopy(current, at + 1, updated, at, current.length - at - 1);
+        elements = updated;
+        return true;
+    }
+
+    /** Элементы по возрастанию */
+    public IntStream intStream() {
+        return Arrays.stream(elements);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer i && contains(i.intValue());
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        return add(value.intValue());
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Integer> values) {
+        return addAll(values.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer i && remove(i.intValue());
+    }
+
+    @Override
+    public void clear() {
+        elements = EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    /** Обход снимка по возрастанию. Удаление через итератор удаляет элемент из множества. */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        int[] snapshot = elements;
+        return new PrimitiveIterator.OfInt() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < snapshot.length;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next >= snapshot.length)
+                    throw new NoSuchElementException();
+                return snapshot[next++];
+            }
+
+            @Override
+            public void remove() {
+                if (next == 0)
+                    throw new IllegalStateException();
+                IntSet.this.remove(snapshot[next - 1]);
+            }
+        };
+    }
+}
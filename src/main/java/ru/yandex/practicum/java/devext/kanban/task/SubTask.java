@@ -1,11 +1,13 @@
 package ru.yandex.practicum.java.devext.kanban.task;
 
 
+import com.google.gson.annotations.JsonAdapter;
 import lombok.Getter;
 import lombok.Setter;
 
 @Setter
 @Getter
+@JsonAdapter(TaskTypeAdapterFactory.class)
 public class SubTask extends Task {
 
     private int epicId;
@@ -1,38 +1,73 @@
 package ru.yandex.practicum.java.devext.kanban.task;
 
+import com.google.gson.annotations.JsonAdapter;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import lombok.ToString;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 
+/**
+ * Задача хранит начало и длительность в секундах ({@link EpochSeconds}), а не объектами java.time,
+ * а повторяющиеся имена и описания менеджер при сохранении задачи заменяет общими экземплярами.
+ * Объекты {@link LocalDateTime} и {@link Duration} создаются только при обращении через get-методы.
+ */
 @Setter
 @Getter
-@ToString
+@JsonAdapter(TaskTypeAdapterFactory.class)
 public class Task {
 
     protected int id = -1;
-    protected Duration duration;
-    protected LocalDateTime startDateTime;
+    @Setter(AccessLevel.NONE)
+    protected long durationSeconds = EpochSeconds.NONE;
+    @Setter(AccessLevel.NONE)
+    protected long startEpochSecond = EpochSeconds.NONE;
     protected String name, description;
     protected TaskStatus status;
+    /** Растёт при каждом обновлении через менеджер. 0 — версия не известна, обновление без проверки версии. */
+    protected long version;
 
     public Task(int id, String name) {
         this.id = id;
-        this.name = name;
+        setName(name);
         status = TaskStatus.NEW;
     }
 
     public Task(String name) {
-        this.name = name;
+        setName(name);
         status = TaskStatus.NEW;
-        startDateTime = LocalDateTime.now();
+        setStartDateTime(LocalDateTime.now());
+    }
+
+    public Duration getDuration() {
+        return EpochSeconds.toDuration(durationSeconds);
+    }
+
+    public void setDuration(Duration duration) {
+        durationSeconds = EpochSeconds.of(duration);
+    }
+
+    public LocalDateTime getStartDateTime() {
+        return EpochSeconds.toDateTime(startEpochSecond);
+    }
+
+    public void setStartDateTime(LocalDateTime startDateTime) {
+        startEpochSecond = EpochSeconds.of(startDateTime);
+    }
+
+    /** Заданы и начало, и длительность */
+    public boolean isScheduled() {
+        return startEpochSecond != EpochSeconds.NONE && durationSeconds != EpochSeconds.NONE;
+    }
+
+    public long getEndEpochSecond() {
+        return isScheduled() ? startEpochSecond + durationSeconds : EpochSeconds.NONE;
     }
 
     public LocalDateTime getEndDateTime() {
-        return startDateTime.plus(duration);
+        return EpochSeconds.toDateTime(getEndEpochSecond());
     }
 
     @Override
@@ -47,4 +82,10 @@ public class Task {
     public final int hashCode() {
         return Objects.hashCode(id);
     }
+
+    @Override
+    public String toString() {
+        return "Task(id=" + id + ", duration=" + getDuration() + ", startDateTime=" + getStartDateTime()
+                + ", name=" + name + ", description=" + description + ", status=" + status + ")";
+    }
 }
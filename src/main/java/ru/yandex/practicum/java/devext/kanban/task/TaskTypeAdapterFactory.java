@@ -0,0 +1,157 @@
+package ru.yandex.practicum.java.devext.kanban.task;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+
+/**
+ * JSON задач в прежнем виде, с полями duration и startDateTime, хотя внутри задача хранит время в секундах.
+ * Формат дат и длительностей берётся у адаптеров, зарегистрированных в {@link Gson}.
+ * Поля идут в порядке, в котором их выводила сериализация по полям: сначала поля подкласса.
+ * Отсутствующие поля получают те же значения, что и при создании объекта без конструктора: 0 и null.
+ */
+public class TaskTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (!Task.class.isAssignableFrom(type.getRawType()))
+            return null;
+        @SuppressWarnings("unchecked")
+        TypeAdapter<T> adapter = (TypeAdapter<T>) new TaskAdapter(type.getRawType(), gson.getAdapter(LocalDateTime.class),
+                gson.getAdapter(Duration.class), gson.getAdapter(TaskStatus.class));
+        return adapter;
+    }
+
+    private static class TaskAdapter extends TypeAdapter<Task> {
+
+        private final Class<?> type;
+        private final TypeAdapter<LocalDateTime> dateTimeAdapter;
+        private final TypeAdapter<Duration> durationAdapter;
+        private final TypeAdapter<TaskStatus> statusAdapter;
+
+        TaskAdapter(Class<?> type, TypeAdapter<LocalDateTime> dateTimeAdapter, TypeAdapter<Duration> durationAdapter,
+                    TypeAdapter<TaskStatus> statusAdapter) {
+            this.type = type;
+            this.dateTimeAdapter = dateTimeAdapter;
+            this.durationAdapter = durationAdapter;
+            this.statusAdapter = statusAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, Task task) throws IOException {
+            if (task == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (task instanceof SubTask st)
+                out.name("epicId").value(st.getEpicId());
+            if (task instanceof Epic epic) {
+                out.name("subTaskIds").beginArray();
+                for (PrimitiveIterator.OfInt it = epic.getSubTaskIds().iterator(); it.hasNext(); )
+                    out.value(it.nextInt());
+                out.endArray();
+                dateTimeAdapter.write(out.name("endDateTime"), epic.getEndDateTime());
+            }
+            out.name("id").value(task.getId());
+            durationAdapter.write(out.name("duration"), task.getDuration());
+            dateTimeAdapter.write(out.name("startDateTime"), task.getStartDateTime());
+            out.name("name").value(task.getName());
+            out.name("description").value(task.getDescription());
+            statusAdapter.write(out.name("status"), task.getStatus());
+            out.name("version").value(task.getVersion());
+            out.endObject();
+        }
+
+        @Override
+        public Task read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            int id = 0, epicId = 0;
+            long version = 0;
+            String name = null, description = null;
+            TaskStatus status = null;
+            Duration duration = null;
+            LocalDateTime start = null, end = null;
+            List<Integer> subTaskIds = new ArrayList<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> id = nextInt(in);
+                    case "epicId" -> epicId = nextInt(in);
+                    case "version" -> version = nextLong(in);
+                    case "name" -> name = nextString(in);
+                    case "description" -> description = nextString(in);
+                    case "status" -> status = statusAdapter.read(in);
+                    case "duration" -> duration = durationAdapter.read(in);
+                    case "startDateTime" -> start = dateTimeAdapter.read(in);
+                    case "endDateTime" -> end = dateTimeAdapter.read(in);
+                    case "subTaskIds" -> {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            continue;
+                        }
+                        in.beginArray();
+                        while (in.hasNext())
+                            subTaskIds.add(in.nextInt());
+                        in.endArray();
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            Task task;
+            if (type == Epic.class) {
+                Epic epic = new Epic(id, name);
+                epic.getSubTaskIds().addAll(subTaskIds);
+                epic.setEndDateTime(end);
+                task = epic;
+            } else if (type == SubTask.class) {
+                SubTask st = new SubTask(id, name);
+                st.setEpicId(epicId);
+                task = st;
+            } else
+                task = new Task(id, name);
+            task.setDescription(description);
+            task.setStatus(status);
+            task.setDuration(duration);
+            task.setStartDateTime(start);
+            task.setVersion(version);
+            return task;
+        }
+
+        private static int nextInt(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.NULL)
+                return in.nextInt();
+            in.nextNull();
+            return 0;
+        }
+
+        private static long nextLong(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.NULL)
+                return in.nextLong();
+            in.nextNull();
+            return 0;
+        }
+
+        private static String nextString(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.NULL)
+                return in.nextString();
+            in.nextNull();
+            return null;
+        }
+    }
+}
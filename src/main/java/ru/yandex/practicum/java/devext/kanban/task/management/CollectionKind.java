@@ -0,0 +1,10 @@
+package ru.yandex.practicum.java.devext.kanban.task.management;
+
+/** Коллекции менеджера задач, для которых ведётся счётчик версий, см. {@link TaskManager#getVersion(CollectionKind)} */
+public enum CollectionKind {
+    TASKS,
+    EPICS,
+    SUBTASKS,
+    PRIORITIZED,
+    HISTORY
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.java.devext.kanban.task.management;
+
+import ru.yandex.practicum.java.devext.kanban.task.Epic;
+import ru.yandex.practicum.java.devext.kanban.task.EpochSeconds;
+import ru.yandex.practicum.java.devext.kanban.task.SubTask;
+import ru.yandex.practicum.java.devext.kanban.task.TaskStatus;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Сводные показатели подзадач одного эпика, которые обновляются при каждом изменении подзадачи,
+ * а не пересчитываются перебором: сумма длительностей, мультимножества времён начала и окончания
+ * и счётчики статусов. Изменение подзадачи стоит O(log k), где k — число подзадач эпика.
+ * Для каждой подзадачи запоминается её вклад, поэтому последующее изменение объекта подзадачи
+ * не искажает показатели — для учёта изменений подзадачу нужно передать повторно.
+ * Времена хранятся в секундах ({@link EpochSeconds}).
+ */
+public class EpicRollup {
+
+    private final Map<Integer, Contribution> contributionById = new HashMap<>();
+    private final TreeMap<Long, Integer> starts = new TreeMap<>(), ends = new TreeMap<>();
+    private final int[] statusCounters = new int[TaskStatus.values().length];
+    private long totalDuration;
+
+    /** Учитывает подзадачу или заменяет её прежний вклад */
+    public synchronized void put(SubTask st) {
+        remove(st.getId());
+        Contribution c = new Contribution(st.getStartEpochSecond(), st.getEndEpochSecond(), st.getDurationSeconds(),
+                st.getStatus() != null ? st.getStatus() : TaskStatus.NEW);
+        contributionById.put(st.getId(), c);
+        increment(starts, c.start);
+        increment(ends, c.end);
+        if (c.duration != EpochSeconds.NONE)
+            totalDuration += c.duration;
+        statusCounters[c.status.ordinal()]++;
+    }
+
+    public synchronized void remove(int subTaskId) {
+        Contribution c = contributionById.remove(subTaskId);
+        if (c != null) {
+            decrement(starts, c.start);
+            decrement(ends, c.end);
+            if (c.duration != EpochSeconds.NONE)
+                totalDuration -= c.duration;
+            statusCounters[c.status.ordinal()]--;
+        }
+    }
+
+    public synchronized int size() {
+        return contributionById.size();
+    }
+
+    public synchronized int count(TaskStatus status) {
+        return statusCounters[status.ordinal()];
+    }
+
+    /** Все подзадачи завершены. Для эпика без подзадач тоже true. */
+    public synchronized boolean allDone() {
+        return count(TaskStatus.DONE) == size();
+    }
+
+    /** Статус эпика по статусам подзадач: NEW или DONE, если таковы все подзадачи, иначе IN_PROGRESS */
+    public synchronized TaskStatus status() {
+        if (size() > 0 && count(TaskStatus.NEW) == size())
+            return TaskStatus.NEW;
+        else if (size() > 0 && count(TaskStatus.DONE) == size())
+            return TaskStatus.DONE;
+        else
+            return TaskStatus.IN_PROGRESS;
+    }
+
+    /**
+     * Длительность эпика — сумма длительностей подзадач, начало — самое раннее начало подзадачи,
+     * окончание — самое позднее окончание подзадачи
+     */
+    public synchronized void applyTimeline(Epic epic) {
+        epic.setTimeline(starts.isEmpty() ? null : EpochSeconds.toDateTime(starts.firstKey()),
+                EpochSeconds.toDuration(totalDuration),
+                ends.isEmpty() ? null : EpochSeconds.toDateTime(ends.lastKey()));
+    }
+
+    /** Согласованный снимок показателей. Для эпика без подзадач статус берётся у самого эпика. */
+    public synchronized EpicSummary summary(Epic epic) {
+        Map<TaskStatus, Integer> statusCounts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values())
+            statusCounts.put(status, count(status));
+        return new EpicSummary(epic.getId(), size() > 0 ? status() : epic.getStatus(), size(), statusCounts,
+                starts.isEmpty() ? null : EpochSeconds.toDateTime(starts.firstKey()),
+                ends.isEmpty() ? null : EpochSeconds.toDateTime(ends.lastKey()), EpochSeconds.toDuration(totalDuration));
+    }
+
+    private static void increment(TreeMap<Long, Integer> multiset, long epochSecond) {
+        if (epochSecond != EpochSeconds.NONE)
+            multiset.merge(epochSecond, 1, Integer::sum);
+    }
+
+    private static void decrement(TreeMap<Long, Integer> multiset, long epochSecond) {
+        if (epochSecond != EpochSeconds.NONE)
+            multiset.computeIfPresent(epochSecond, (k, n) -> n > 1 ? n - 1 : null);
+    }
+
+    private record Contribution(long start, long end, long duration, TaskStatus status) {
+    }
+}
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.java.devext.kanban.task.management;
+
+import ru.yandex.practicum.java.devext.kanban.task.TaskStatus;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+
+/** Снимок сводных показателей эпика на момент запроса, см. {@link EpicRollup} */
+public record EpicSummary(int epicId, TaskStatus status, int subTaskCount, Map<TaskStatus, Integer> statusCounts,
+                          LocalDateTime startDateTime, LocalDateTime endDateTime, Duration duration) {
+}
@@ -1,7 +1,10 @@
 package ru.yandex.practicum.java.devext.kanban.task.management;
 
 import ru.yandex.practicum.java.devext.kanban.history.HistoryManager;
+import ru.yandex.practicum.java.devext.kanban.metrics.Gauge;
+import ru.yandex.practicum.java.devext.kanban.metrics.MetricsRegistry;
 import ru.yandex.practicum.java.devext.kanban.task.Epic;
+import ru.yandex.practicum.java.devext.kanban.task.IntSet;
 import ru.yandex.practicum.java.devext.kanban.task.TaskStatus;
 import ru.yandex.practicum.java.devext.kanban.task.SubTask;
 import ru.yandex.practicum.java.devext.kanban.task.Task;
@@ -9,151 +12,267 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import static ru.yandex.practicum.java.devext.kanban.task.management.Managers.getDefaultHistory;
 
 
 public class InMemoryTaskManager implements TaskManager {
 
-    protected final Map<Integer, Task> tasks;
-    protected final Map<Integer, Epic> epics;
-    protected final Map<Integer, SubTask> subTasks;
+    private static final int OPTIMISTIC_READ_ATTEMPTS = 3;
+
+    protected final NavigableMap<Integer, Task> tasks;
+    protected final NavigableMap<Integer, Epic> epics;
+    protected final NavigableMap<Integer, SubTask> subTasks;
     protected final HistoryManager historyManager;
     protected AtomicInteger idSeq;
-    protected final TreeSet<Task> prioritizedTasks;
+    protected final PrioritizedIndex prioritizedTasks;
+    protected final ScheduleIndex scheduleIndex;
+    protected final Map<Integer, EpicRollup> epicRollups;
+    protected final SecondaryIndex<TaskStatus, Task> tasksByStatus;
+    protected final SecondaryIndex<TaskStatus, Epic> epicsByStatus;
+    protected final SecondaryIndex<TaskStatus, SubTask> subTasksByStatus;
+    protected final SecondaryIndex<Integer, SubTask> subTasksByEpic;
+    private final AtomicLongArray versions = new AtomicLongArray(CollectionKind.values().length);
+    private final StringPool strings = new StringPool();
+    /** Версия состояния: пишущий держит её на запись, пока все индексы и эпики не согласованы */
+    private final StampedLock stateLock = new StampedLock();
+    /** Делает запись реентерабельной: вложенные изменения (например, updateEpic из updateSubTask) идут под той же версией */
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private long writeStamp;
 
     public InMemoryTaskManager() {
-        tasks = new ConcurrentHashMap<>();
-        epics = new ConcurrentHashMap<>();
-        subTasks = new ConcurrentHashMap<>();
+        tasks = new ConcurrentSkipListMap<>();
+        epics = new ConcurrentSkipListMap<>();
+        subTasks = new ConcurrentSkipListMap<>();
         historyManager = getDefaultHistory();
         idSeq = new AtomicInteger();
-        prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartDateTime));
+        prioritizedTasks = new PrioritizedIndex();
+        scheduleIndex = new ScheduleIndex();
+        epicRollups = new ConcurrentHashMap<>();
+        tasksByStatus = new SecondaryIndex<>(Task::getStatus);
+        epicsByStatus = new SecondaryIndex<>(Epic::getStatus);
+        subTasksByStatus = new SecondaryIndex<>(SubTask::getStatus);
+        subTasksByEpic = new SecondaryIndex<>(SubTask::getEpicId);
     }
 
     @Override
     public void addTask(Task newTask) throws ExecutionDateTimeOverlapException {
-        if (newTask.getStatus() == TaskStatus.NEW) {
-            checkTaskExecDateTimeOverlaps(newTask);
-            tasks.put(newTask.getId(), newTask);
-            if (newTask.getStartDateTime() != null)
-                prioritizedTasks.add(newTask);
-        }
+        write(() -> {
+            if (newTask.getStatus() == TaskStatus.NEW) {
+                checkTaskExecDateTimeOverlaps(newTask);
+                putTask(newTask);
+            }
+        });
+    }
+
+    /** Пакет проверяется целиком до первого изменения: либо добавляются все задачи, либо ни одной */
+    @Override
+    public void addTasks(List<Task> newTasks) throws ExecutionDateTimeOverlapException {
+        write(() -> {
+            requireNewAndDistinct(newTasks);
+            checkBatchExecDateTimeOverlaps(newTasks);
+            newTasks.forEach(this::putTask);
+        });
     }
 
     @Override
     public void addEpic(Epic newEpic) {
-        if (newEpic.getStatus() == TaskStatus.NEW) {
-            epics.put(newEpic.getId(), newEpic);
-        } else
-            throw new RuntimeException("Добавить можно только новый эпик");
+        write(() -> {
+            if (newEpic.getStatus() == TaskStatus.NEW) {
+                newEpic.setVersion(1);
+                shareStrings(newEpic);
+                epics.put(newEpic.getId(), newEpic);
+                epicsByStatus.add(newEpic);
+                touch(CollectionKind.EPICS);
+            } else
+                throw new RuntimeException("Добавить можно только новый эпик");
+        });
     }
 
     @Override
     public void addSubTask(SubTask newSubTask, Epic epic) throws ExecutionDateTimeOverlapException {
-        if (newSubTask.getStatus() == TaskStatus.NEW) {
-            checkSubTaskExecDateTimeOverlaps(newSubTask);
-            newSubTask.setEpicId(epic.getId());
-            epic.bindSubTask(newSubTask);
-            subTasks.put(newSubTask.getId(), newSubTask);
-            if (newSubTask.getStartDateTime() != null) {
-                prioritizedTasks.add(newSubTask);
-                setEpicTimeline(epic);
+        write(() -> {
+            if (newSubTask.getStatus() == TaskStatus.NEW) {
+                checkSubTaskExecDateTimeOverlaps(newSubTask);
+                putSubTask(newSubTask, epic);
             }
-        }
+        });
+    }
+
+    /** Эпик каждой подзадачи задаётся её epicId. Пакет добавляется целиком или не добавляется вовсе. */
+    @Override
+    public void addSubTasks(List<SubTask> newSubTasks) throws ExecutionDateTimeOverlapException {
+        write(() -> {
+            requireNewAndDistinct(newSubTasks);
+            for (SubTask st : newSubTasks)
+                if (!epics.containsKey(st.getEpicId()))
+                    throw new NotFoundException("Epic with ID " + st.getEpicId() + " is not created yet");
+            checkBatchExecDateTimeOverlaps(newSubTasks);
+            // Пакет привязывается к эпикам заранее: по одной подзадаче массив ID эпика копировался бы k раз
+            newSubTasks.stream()
+                    .collect(Collectors.groupingBy(SubTask::getEpicId))
+                    .forEach((epicId, batch) -> epics.get(epicId).bindSubTasks(batch));
+            newSubTasks.forEach(st -> putSubTask(st, epics.get(st.getEpicId())));
+        });
     }
 
     @Override
     public List<Task> getTasks() {
-        return new ArrayList<>(tasks.values());
+        return read(() -> new ArrayList<>(tasks.values()));
     }
 
     @Override
     public List<Epic> getEpics() {
-        return new ArrayList<>(epics.values());
+        return read(() -> new ArrayList<>(epics.values()));
     }
 
     @Override
     public List<SubTask> getSubTasks() {
-        return new ArrayList<>(subTasks.values());
+        return read(() -> new ArrayList<>(subTasks.values()));
+    }
+
+    @Override
+    public Page<Task> getTasks(int limit, Integer cursor) {
+        return read(() -> page(tasks, t -> true, limit, cursor));
+    }
+
+    @Override
+    public Page<Epic> getEpics(int limit, Integer cursor) {
+        return read(() -> page(epics, e -> true, limit, cursor));
+    }
+
+    @Override
+    public Page<SubTask> getSubTasks(int limit, Integer cursor) {
+        return read(() -> page(subTasks, st -> true, limit, cursor));
+    }
+
+    @Override
+    public Page<Task> getTasks(TaskStatus status, int limit, Integer cursor) {
+        return read(() -> page(status == null ? tasks : tasksByStatus.get(status), t -> true, limit, cursor));
+    }
+
+    @Override
+    public Page<Epic> getEpics(TaskStatus status, int limit, Integer cursor) {
+        return read(() -> page(status == null ? epics : epicsByStatus.get(status), e -> true, limit, cursor));
+    }
+
+    /** При обоих фильтрах обходятся подзадачи эпика: их обычно намного меньше, чем подзадач в любом статусе */
+    @Override
+    public Page<SubTask> getSubTasks(TaskStatus status, Integer epicId, int limit, Integer cursor) {
+        return read(() -> {
+            if (epicId != null)
+                return page(subTasksByEpic.get(epicId), st -> status == null || st.getStatus() == status, limit, cursor);
+            return page(status == null ? subTasks : subTasksByStatus.get(status), st -> true, limit, cursor);
+        });
     }
 
     @Override
     public void removeAllTasks() {
-        tasks.forEach((id, task) -> {
-            tasks.remove(id);
-            historyManager.remove(task);
+        write(() -> {
+            tasks.forEach((id, task) -> {
+                tasks.remove(id);
+                scheduleIndex.remove(task);
+                prioritizedTasks.remove(task);
+                tasksByStatus.remove(id);
+                historyManager.remove(task);
+                touch(CollectionKind.TASKS, CollectionKind.PRIORITIZED, CollectionKind.HISTORY);
+            });
         });
     }
 
     @Override
     public void removeAllEpics() {
-        epics.forEach((id, epic) -> {
-            removeEpic(id);
-            historyManager.remove(epic);
+        write(() -> {
+            epics.forEach((id, epic) -> {
+                removeEpic(id);
+                historyManager.remove(epic);
+            });
+            touch(CollectionKind.HISTORY);
         });
     }
 
     @Override
     public void removeAllSubTasks() {
-        subTasks.forEach((id, subtask) -> {
-            removeSubTask(id);
-            historyManager.remove(subtask);
+        write(() -> {
+            subTasks.forEach((id, subtask) -> {
+                removeSubTask(id);
+                historyManager.remove(subtask);
+            });
+            touch(CollectionKind.HISTORY);
         });
     }
 
     @Override
     public void removeTask(int id) {
-        if (!tasks.isEmpty() && tasks.get(id) != null) {
-            historyManager.remove(tasks.get(id));
-            tasks.remove(id);
-        } else
-            System.out.println("Ошибка: задача с ID " + id + " не существует");
+        write(() -> {
+            if (!tasks.isEmpty() && tasks.get(id) != null) {
+                deleteTask(tasks.get(id));
+            } else
+                System.out.println("Ошибка: задача с ID " + id + " не существует");
+        });
+    }
+
+    /** Если хотя бы одной задачи нет, не удаляется ни одна */
+    @Override
+    public void removeTasks(Collection<Integer> ids) {
+        write(() -> {
+            List<Task> found = findAll(tasks, ids, "Task");
+            found.forEach(this::deleteTask);
+        });
     }
 
     @Override
     public void removeEpic(int id) {
-        if (!epics.isEmpty() && epics.get(id) != null) {
-            Set<Integer> subtaskIds = epics.get(id).getSubTaskIds();
-            int doneCounter = 0;
-            for (int stId : subtaskIds)
-                if (subTasks.get(stId).getStatus() == TaskStatus.DONE)
-                    doneCounter++;
-            if (subtaskIds.isEmpty() || subtaskIds.size() == doneCounter) {
-                historyManager.remove(epics.get(id));
-                epics.remove(id);
+        write(() -> {
+            if (!epics.isEmpty() && epics.get(id) != null) {
+                IntSet subtaskIds = epics.get(id).getSubTaskIds();
+                long doneCounter = subtaskIds.intStream()
+                        .filter(stId -> subTasks.get(stId).getStatus() == TaskStatus.DONE)
+                        .count();
+                if (subtaskIds.isEmpty() || subtaskIds.size() == doneCounter) {
+                    historyManager.remove(epics.get(id));
+                    epics.remove(id);
+                    epicsByStatus.remove(id);
+                    epicRollups.remove(id);
+                    touch(CollectionKind.EPICS, CollectionKind.HISTORY);
+                } else
+                    System.out.println("Ошибка: эпик не не может быть удалён, поскольку не завершён или содержит подзадачи");
             } else
-                System.out.println("Ошибка: эпик не не может быть удалён, поскольку не завершён или содержит подзадачи");
-        } else
-            System.out.println("Ошибка: эпик с ID " + id + " не существует");
+                System.out.println("Ошибка: эпик с ID " + id + " не существует");
+        });
     }
 
     @Override
     public void removeSubTask(int id) {
-        if (!subTasks.isEmpty() && subTasks.get(id) != null) {
-            SubTask subTask = subTasks.get(id);
-            Epic epic = epics.get(subTask.getEpicId());
-            epic.unbindSubTask(subTask);
-            subTasks.remove(subTask.getId());
-            setEpicTimeline(epic);
-            historyManager.remove(subTask);
-            int doneCounter = 0;
-            Set<Integer> subtaskIds = epic.getSubTaskIds();
-            for (int stId : subtaskIds)
-                if (subTasks.get(stId).getStatus() == TaskStatus.DONE)
-                    doneCounter++;
-            if (subtaskIds.size() == doneCounter)
-                epic.setStatus(TaskStatus.DONE);
-        } else
-            System.out.println("Ошибка: подзадача с ID " + id + " не существует");
+        write(() -> {
+            if (!subTasks.isEmpty() && subTasks.get(id) != null) {
+                deleteSubTask(subTasks.get(id));
+            } else
+                System.out.println("Ошибка: подзадача с ID " + id + " не существует");
+        });
+    }
+
+    /** Если хотя бы одной подзадачи нет, не удаляется ни одна */
+    @Override
+    public void removeSubTasks(Collection<Integer> ids) {
+        write(() -> {
+            List<SubTask> found = findAll(subTasks, ids, "SubTask");
+            found.forEach(this::deleteSubTask);
+        });
     }
 
     @Override
     public Task getTaskById(Integer id) {
         Optional<Task> opt = Optional.ofNullable(tasks.get(id));
         Task task = opt.orElseThrow(() -> new NotFoundException("Task with ID " + id + " is not created yet"));
-        historyManager.add(task);
+        recordView(task);
         return task;
     }
 
@@ -161,7 +280,7 @@ public class InMemoryTaskManager implements TaskManager {
     public Epic getEpicById(Integer id) {
         Optional<Epic> opt = Optional.ofNullable(epics.get(id));
         Epic epic = opt.orElseThrow(() -> new NotFoundException("Epic with ID " + id + " is not created yet"));
-        historyManager.add(epic);
+        recordView(epic);
         return epic;
     }
 
@@ -169,63 +288,107 @@ public class InMemoryTaskManager implements TaskManager {
     public SubTask getSubTaskById(Integer id) {
         Optional<SubTask> opt = Optional.ofNullable(subTasks.get(id));
         SubTask subTask = opt.orElseThrow(() -> new NotFoundException("SubTask with ID " + id + " is not created yet"));
-        historyManager.add(subTask);
+        recordView(subTask);
         return subTask;
     }
 
+    /** Задачи в порядке переданных ID. Отсутствующие ID пропускаются. */
+    @Override
+    public List<Task> getTasksByIds(Collection<Integer> ids) {
+        List<Task> found = read(() -> getAllByIds(tasks, ids));
+        found.forEach(this::recordView);
+        return found;
+    }
+
+    /** Подзадачи в порядке переданных ID. Отсутствующие ID пропускаются. */
+    @Override
+    public List<SubTask> getSubTasksByIds(Collection<Integer> ids) {
+        List<SubTask> found = read(() -> getAllByIds(subTasks, ids));
+        found.forEach(this::recordView);
+        return found;
+    }
+
     @Override
     public void updateTask(Task updatedTask) throws ExecutionDateTimeOverlapException {
-        checkTaskExecDateTimeOverlaps(updatedTask);
-        int updatedId = updatedTask.getId();
-        if (tasks.containsKey(updatedId))
-            tasks.put(updatedTask.getId(), updatedTask);
-        else
-            throw new NotFoundException("Task with ID " + updatedId + " is not created yet");
+        write(() -> {
+            checkTaskExecDateTimeOverlaps(updatedTask);
+            int updatedId = updatedTask.getId();
+            if (tasks.containsKey(updatedId)) {
+                advanceVersion(tasks.get(updatedId), updatedTask);
+                shareStrings(updatedTask);
+                tasks.put(updatedTask.getId(), updatedTask);
+                scheduleIndex.add(updatedTask);
+                prioritizedTasks.add(updatedTask);
+                tasksByStatus.add(updatedTask);
+                touch(CollectionKind.TASKS, CollectionKind.PRIORITIZED);
+            } else
+                throw new NotFoundException("Task with ID " + updatedId + " is not created yet");
+        });
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        int updatedId = epic.getId();
-        if (epics.containsKey(updatedId)) {
-            Set<Integer> subTaskIds = epic.getSubTaskIds();
-            int newCounter = 0, doneCounter = 0;
-            for (int stId : subTaskIds) {
-                SubTask st = subTasks.get(stId);
-                switch (st.getStatus()) {
-                    case NEW -> newCounter++;
-                    case DONE -> doneCounter++;
-                }
-                if (!subTaskIds.isEmpty() && subTaskIds.size() == newCounter)
-                    epic.setStatus(TaskStatus.NEW);
-                else if (!subTaskIds.isEmpty() && subTaskIds.size() == doneCounter)
-                    epic.setStatus(TaskStatus.DONE);
-                else
-                    epic.setStatus(TaskStatus.IN_PROGRESS);
-            }
-            epics.put(updatedId, epic);
-            setEpicTimeline(epic);
-        } else
-            throw new NotFoundException("Epic with ID " + updatedId + " is not created yet");
+        write(() -> {
+            int updatedId = epic.getId();
+            if (epics.containsKey(updatedId)) {
+                advanceVersion(epics.get(updatedId), epic);
+                EpicRollup rollup = rollupOf(updatedId);
+                if (rollup.size() > 0)
+                    epic.setStatus(rollup.status());
+                shareStrings(epic);
+                epics.put(updatedId, epic);
+                epicsByStatus.add(epic);
+                setEpicTimeline(epic);
+                touch(CollectionKind.EPICS);
+            } else
+                throw new NotFoundException("Epic with ID " + updatedId + " is not created yet");
+        });
     }
 
     @Override
     public void updateSubTask(SubTask updatedSubTask) throws ExecutionDateTimeOverlapException {
-        checkSubTaskExecDateTimeOverlaps(updatedSubTask);
-        int updatedId = updatedSubTask.getId();
-        if (subTasks.containsKey(updatedId)) {
-            Epic epic = epics.get(updatedSubTask.getEpicId());
-            subTasks.put(updatedId, updatedSubTask);
-            updateEpic(epic);
-        } else
-            throw new NotFoundException("SubTask with ID " + updatedId + " is not created yet");
+        write(() -> {
+            checkSubTaskExecDateTimeOverlaps(updatedSubTask);
+            int updatedId = updatedSubTask.getId();
+            if (subTasks.containsKey(updatedId)) {
+                Epic epic = epics.get(updatedSubTask.getEpicId());
+                if (epic == null)
+                    throw new NotFoundException("Epic with ID " + updatedSubTask.getEpicId() + " is not created yet");
+                advanceVersion(subTasks.get(updatedId), updatedSubTask);
+                // Прежний эпик берётся из индекса: подзадачу могли перенести, изменив хранимый объект на месте
+                Epic previousEpic = epics.get(subTasksByEpic.indexedKey(updatedId));
+                shareStrings(updatedSubTask);
+                subTasks.put(updatedId, updatedSubTask);
+                if (previousEpic != epic) {
+                    unbindFromEpic(previousEpic, updatedSubTask);
+                    updateEpic(previousEpic);
+                    epic.bindSubTask(updatedSubTask);
+                }
+                rollupOf(epic.getId()).put(updatedSubTask);
+                scheduleIndex.add(updatedSubTask);
+                prioritizedTasks.add(updatedSubTask);
+                subTasksByStatus.add(updatedSubTask);
+                subTasksByEpic.add(updatedSubTask);
+                updateEpic(epic);
+                touch(CollectionKind.SUBTASKS, CollectionKind.PRIORITIZED);
+            } else
+                throw new NotFoundException("SubTask with ID " + updatedId + " is not created yet");
+        });
     }
 
     @Override
     public List<SubTask> getSubTasksForEpic(Epic epic) {
-        return epic.getSubTaskIds().stream()
-                .map(subTasks::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return read(() -> new ArrayList<>(subTasksByEpic.get(epic.getId()).values()));
+    }
+
+    @Override
+    public EpicSummary getEpicSummary(int epicId) {
+        return read(() -> {
+            Epic epic = epics.get(epicId);
+            if (epic == null)
+                throw new NotFoundException("Epic with ID " + epicId + " is not created yet");
+            return rollupOf(epicId).summary(epic);
+        });
     }
 
     @Override
@@ -235,7 +398,86 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public LinkedList<Task> getPrioritizedTasks() {
-        return new LinkedList<>(prioritizedTasks);
+        return read(() -> new LinkedList<>(prioritizedTasks.view()));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(int limit) {
+        return read(() -> prioritizedTasks.head(limit));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        if (limit <= 0)
+            throw new IllegalArgumentException("Limit must be positive, got " + limit);
+        if (from != null && to != null && !from.isBefore(to))
+            throw new IllegalArgumentException("Range start " + from + " must be before its end " + to);
+        return read(() -> {
+            List<Task> result = new ArrayList<>(Math.min(limit, 64));
+            if (from != null)
+                for (Task running : scheduleIndex.runningAt(from)) {
+                    if (result.size() == limit)
+                        return result;
+                    result.add(running);
+                }
+            Iterator<Task> it = prioritizedTasks.startingBetween(from, to).iterator();
+            while (result.size() < limit && it.hasNext())
+                result.add(it.next());
+            return result;
+        });
+    }
+
+    @Override
+    public Collection<Task> getPrioritizedTasksView() {
+        return prioritizedTasks.view();
+    }
+
+    @Override
+    public long getVersion(CollectionKind kind) {
+        return versions.get(kind.ordinal());
+    }
+
+    @Override
+    public Optional<LocalDateTime> findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return read(() -> {
+            if (duration == null || duration.getSeconds() <= 0)
+                throw new IllegalArgumentException("Slot duration must be at least one second, got " + duration);
+            LocalDateTime start = scheduleIndex.findFreeSlot(notBefore != null ? notBefore : LocalDateTime.now(), duration);
+            if (notAfter != null && start.plusSeconds(duration.getSeconds()).isAfter(notAfter))
+                return Optional.empty();
+            return Optional.of(start);
+        });
+    }
+
+    /** Найденный интервал может занять параллельное изменение — тогда, как и в addTask, будет исключение о пересечении */
+    @Override
+    public void addTaskToFreeSlot(Task newTask, LocalDateTime notBefore, LocalDateTime notAfter)
+            throws ExecutionDateTimeOverlapException {
+        write(() -> {
+            if (newTask.getStatus() != TaskStatus.NEW)
+                throw new IllegalArgumentException("Добавить можно только новую задачу, " + newTask + " в статусе "
+                        + newTask.getStatus());
+            if (newTask.getDuration() == null)
+                throw new IllegalArgumentException("Для поиска интервала у задачи " + newTask + " должна быть длительность");
+            LocalDateTime start = findFreeSlot(newTask.getDuration(), notBefore, notAfter)
+                    .orElseThrow(() -> new ExecutionDateTimeOverlapException("Для задачи " + newTask
+                            + " нет свободного интервала, заканчивающегося не позже " + notAfter));
+            newTask.setStartDateTime(start);
+            addTask(newTask);
+        });
+    }
+
+    /** Размеры считаются при чтении метрик: size() у {@link ConcurrentSkipListMap} обходит всю карту */
+    @Override
+    public void registerMetrics(MetricsRegistry registry) {
+        String help = "Number of stored tasks by kind";
+        registry.register("kanban_tasks", help, new Gauge(tasks::size), "kind", "task");
+        registry.register("kanban_tasks", help, new Gauge(epics::size), "kind", "epic");
+        registry.register("kanban_tasks", help, new Gauge(subTasks::size), "kind", "subtask");
+        registry.register("kanban_prioritized_tasks", "Number of tasks in the priority index",
+                new Gauge(prioritizedTasks::size));
+        registry.register("kanban_history_size", "Number of tasks in the view history",
+                new Gauge(historyManager::getSize));
     }
 
     @Override
@@ -243,73 +485,272 @@ public class InMemoryTaskManager implements TaskManager {
         return idSeq.getAndIncrement();
     }
 
+    /**
+     * Выполняет изменение как одну новую версию состояния. Читатели, начавшие раньше, перечитают данные,
+     * а не увидят задачу без индекса или эпик со старым таймлайном.
+     */
+    protected final <T> T write(Supplier<T> change) {
+        writerLock.lock();
+        boolean outermost = writerLock.getHoldCount() == 1;
+        if (outermost)
+            writeStamp = stateLock.writeLock();
+        try {
+            return change.get();
+        } finally {
+            if (outermost)
+                stateLock.unlockWrite(writeStamp);
+            writerLock.unlock();
+        }
+    }
+
+    protected final void write(Runnable change) {
+        write(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    /**
+     * Читает согласованную версию состояния без блокировки: если за время чтения опубликована новая версия,
+     * чтение повторяется. После нескольких неудач под частыми записями читатель берёт блокировку на чтение.
+     */
+    protected final <T> T read(Supplier<T> query) {
+        if (writerLock.isHeldByCurrentThread())
+            return query.get();
+        for (int attempt = 0; attempt < OPTIMISTIC_READ_ATTEMPTS; attempt++) {
+            long stamp = stateLock.tryOptimisticRead();
+            if (stamp == 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            try {
+                T result = query.get();
+                if (stateLock.validate(stamp))
+                    return result;
+            } catch (RuntimeException e) {
+                if (stateLock.validate(stamp))
+                    throw e;
+            }
+        }
+        long stamp = stateLock.readLock();
+        try {
+            return query.get();
+        } finally {
+            stateLock.unlockRead(stamp);
+        }
+    }
+
     protected final boolean executionDateTimeOverlaps(Task task1, Task task2) {
-        if (task1.getStartDateTime() != null
-                && task2.getStartDateTime() != null
-                && task1.getDuration() != null
-                && task2.getDuration() != null) {
-            return task1.getEndDateTime().isAfter(task2.getStartDateTime()) && task2.getEndDateTime().isAfter(task1.getStartDateTime());
+        if (task1.isScheduled() && task2.isScheduled()) {
+            return task1.getEndEpochSecond() > task2.getStartEpochSecond()
+                    && task2.getEndEpochSecond() > task1.getStartEpochSecond();
         } else
             return false;
     }
 
     protected void checkTaskExecDateTimeOverlaps(Task taskToCheck) {
-        Optional<Task> overlap = tasks.values().stream()
-                .filter(task -> !task.equals(taskToCheck))
-                .filter(task -> executionDateTimeOverlaps(task, taskToCheck))
-                .findFirst();
-        if (overlap.isPresent())
-            throw new ExecutionDateTimeOverlapException("Задача " + taskToCheck + " пересекается по времени выполнения с задачей "
-                    + overlap.get());
-        Optional<SubTask> subTaskOverlap = subTasks.values().stream()
-                .filter(subTask -> executionDateTimeOverlaps(subTask, taskToCheck))
-                .findFirst();
-        if (subTaskOverlap.isPresent())
-            throw new ExecutionDateTimeOverlapException("Задача " + taskToCheck + " пересекается по времени выполнения с подзадачей "
-                    + subTaskOverlap.get());
+        scheduleIndex.findOverlap(taskToCheck).ifPresent(overlap -> {
+            throw new ExecutionDateTimeOverlapException("Задача " + taskToCheck + " пересекается по времени выполнения с "
+                    + (overlap instanceof SubTask ? "подзадачей " : "задачей ") + overlap);
+        });
     }
 
     protected void checkSubTaskExecDateTimeOverlaps(SubTask subTaskToCheck) {
-        Optional<Task> taskOverlap = tasks.values().stream()
-                .filter(task -> executionDateTimeOverlaps(task, subTaskToCheck))
-                .findFirst();
-        if (taskOverlap.isPresent())
-            throw new ExecutionDateTimeOverlapException("Подзадача " + subTaskToCheck + " пересекается по времени выполнения с задачей "
-                    + taskOverlap.get());
-        Optional<SubTask> subTaskOverlap = subTasks.values().stream()
-                .filter(subTask -> !subTask.equals(subTaskToCheck))
-                .filter(subTask -> executionDateTimeOverlaps(subTask, subTaskToCheck))
-                .findFirst();
-        if (subTaskOverlap.isPresent())
-            throw new ExecutionDateTimeOverlapException("Подзадача " + subTaskToCheck + " пересекается по времени выполнения с подзадачей "
-                    + subTaskOverlap.get());
+        scheduleIndex.findOverlap(subTaskToCheck).ifPresent(overlap -> {
+            throw new ExecutionDateTimeOverlapException("Подзадача " + subTaskToCheck + " пересекается по времени выполнения с "
+                    + (overlap instanceof SubTask ? "подзадачей " : "задачей ") + overlap);
+        });
+    }
+
+    /** Пересобирает сводные показатели всех эпиков, например после восстановления из файла */
+    protected void rebuildEpicRollups() {
+        epicRollups.clear();
+        subTasks.values().stream()
+                .filter(st -> epics.containsKey(st.getEpicId()))
+                .forEach(st -> rollupOf(st.getEpicId()).put(st));
+        epics.values().forEach(this::setEpicTimeline);
+    }
+
+    /** Обходит только хвост упорядоченной по ID карты после курсора, не копируя коллекцию целиком */
+    private static <T extends Task> Page<T> page(NavigableMap<Integer, T> byId, Predicate<? super T> filter,
+                                                 int limit, Integer cursor) {
+        if (limit <= 0)
+            throw new IllegalArgumentException("Page limit must be positive, got " + limit);
+        NavigableMap<Integer, T> tail = cursor == null ? byId : byId.tailMap(cursor, false);
+        List<T> items = new ArrayList<>(Math.min(limit, 64));
+        for (T item : tail.values()) {
+            if (!filter.test(item))
+                continue;
+            if (items.size() == limit)
+                return new Page<>(items, items.get(limit - 1).getId());
+            items.add(item);
+        }
+        return new Page<>(items, null);
+    }
+
+    /**
+     * Проверка пакета на пересечения: одна сортировка по началу и проход, на котором каждая задача сравнивается
+     * с самой поздно заканчивающейся из предыдущих, плюс по одному запросу к {@link ScheduleIndex} на задачу
+     * вместо попарного сравнения. O((k + m) log(n + k)) для пакета из k задач, m — число найденных пересечений.
+     */
+    protected void checkBatchExecDateTimeOverlaps(List<? extends Task> batch) {
+        List<Task> scheduled = batch.stream()
+                .filter(Task::isScheduled)
+                .sorted(Comparator.comparingLong(Task::getStartEpochSecond))
+                .collect(Collectors.toList());
+        Task latestEnding = null;
+        for (Task t : scheduled) {
+            if (latestEnding != null && executionDateTimeOverlaps(latestEnding, t))
+                throw new ExecutionDateTimeOverlapException("Задача " + t + " пересекается по времени выполнения с "
+                        + "задачей того же пакета " + latestEnding);
+            if (latestEnding == null || t.getEndEpochSecond() > latestEnding.getEndEpochSecond())
+                latestEnding = t;
+            if (t instanceof SubTask st)
+                checkSubTaskExecDateTimeOverlaps(st);
+            else
+                checkTaskExecDateTimeOverlaps(t);
+        }
+    }
+
+    /** Заполняет вторичные индексы по текущему содержимому хранилищ, например после восстановления из файла */
+    protected void rebuildSecondaryIndexes() {
+        tasksByStatus.clear();
+        epicsByStatus.clear();
+        subTasksByStatus.clear();
+        subTasksByEpic.clear();
+        tasks.values().forEach(tasksByStatus::add);
+        epics.values().forEach(epicsByStatus::add);
+        subTasks.values().forEach(subTasksByStatus::add);
+        subTasks.values().forEach(subTasksByEpic::add);
+    }
+
+    /**
+     * Увеличивает версии коллекций. Вызывается после изменения, а не до: иначе читатель мог бы получить
+     * новую версию вместе со старыми данными и закешировать их под новым ETag.
+     * Изменение объекта задачи без вызова метода обновления версию не меняет.
+     */
+    protected void touch(CollectionKind... kinds) {
+        for (CollectionKind kind : kinds)
+            versions.incrementAndGet(kind.ordinal());
+    }
+
+    /**
+     * Сравнивает версию обновления с хранимой и назначает обновлению следующую.
+     * Вызывается под блокировкой записи, поэтому проверка и замена задачи выполняются атомарно.
+     */
+    private static void advanceVersion(Task stored, Task updated) {
+        long expected = updated.getVersion();
+        if (expected != 0 && expected != stored.getVersion())
+            throw new VersionConflictException("Task with ID " + stored.getId() + " has version " + stored.getVersion()
+                    + ", update expects " + expected);
+        updated.setVersion(stored.getVersion() + 1);
+    }
+
+    /** Имена и описания сохраняемых задач хранятся в одном экземпляре, см. {@link StringPool} */
+    protected void shareStrings(Task task) {
+        strings.share(task);
+    }
+
+    private void recordView(Task task) {
+        historyManager.add(task);
+        touch(CollectionKind.HISTORY);
+    }
+
+    private void putTask(Task task) {
+        task.setVersion(1);
+        shareStrings(task);
+        tasks.put(task.getId(), task);
+        scheduleIndex.add(task);
+        prioritizedTasks.add(task);
+        tasksByStatus.add(task);
+        touch(CollectionKind.TASKS, CollectionKind.PRIORITIZED);
+    }
+
+    private void putSubTask(SubTask subTask, Epic epic) {
+        subTask.setEpicId(epic.getId());
+        epic.bindSubTask(subTask);
+        subTask.setVersion(1);
+        shareStrings(subTask);
+        subTasks.put(subTask.getId(), subTask);
+        scheduleIndex.add(subTask);
+        prioritizedTasks.add(subTask);
+        subTasksByStatus.add(subTask);
+        subTasksByEpic.add(subTask);
+        rollupOf(epic.getId()).put(subTask);
+        setEpicTimeline(epic);
+        touch(CollectionKind.SUBTASKS, CollectionKind.PRIORITIZED, CollectionKind.EPICS);
+    }
+
+    private void deleteTask(Task task) {
+        tasks.remove(task.getId());
+        historyManager.remove(task);
+        scheduleIndex.remove(task);
+        prioritizedTasks.remove(task);
+        tasksByStatus.remove(task.getId());
+        touch(CollectionKind.TASKS, CollectionKind.PRIORITIZED, CollectionKind.HISTORY);
+    }
+
+    private void deleteSubTask(SubTask subTask) {
+        int id = subTask.getId();
+        subTasks.remove(id);
+        scheduleIndex.remove(subTask);
+        prioritizedTasks.remove(subTask);
+        subTasksByStatus.remove(id);
+        subTasksByEpic.remove(id);
+        unbindFromEpic(epics.get(subTask.getEpicId()), subTask);
+        historyManager.remove(subTask);
+        touch(CollectionKind.SUBTASKS, CollectionKind.PRIORITIZED, CollectionKind.EPICS, CollectionKind.HISTORY);
+    }
+
+    /** Убирает подзадачу из эпика и его сводных показателей. Эпик, в котором не осталось незавершённых, завершается. */
+    private void unbindFromEpic(Epic epic, SubTask subTask) {
+        epic.unbindSubTask(subTask);
+        EpicRollup rollup = rollupOf(epic.getId());
+        rollup.remove(subTask.getId());
+        setEpicTimeline(epic);
+        if (rollup.allDone()) {
+            epic.setStatus(TaskStatus.DONE);
+            epicsByStatus.add(epic);
+        }
+    }
+
+    private static void requireNewAndDistinct(List<? extends Task> batch) {
+        Set<Integer> ids = new HashSet<>();
+        for (Task t : batch) {
+            if (t.getStatus() != TaskStatus.NEW)
+                throw new IllegalArgumentException("Добавить можно только новые задачи, " + t + " в статусе " + t.getStatus());
+            if (!ids.add(t.getId()))
+                throw new IllegalArgumentException("ID " + t.getId() + " повторяется в пакете");
+        }
+    }
+
+    private static <T extends Task> List<T> findAll(Map<Integer, T> byId, Collection<Integer> ids, String kind) {
+        List<T> found = new ArrayList<>(ids.size());
+        for (int id : new LinkedHashSet<>(ids)) {
+            T t = byId.get(id);
+            if (t == null)
+                throw new NotFoundException(kind + " with ID " + id + " is not created yet");
+            found.add(t);
+        }
+        return found;
+    }
+
+    /** Только выборка: просмотры записываются в историю вызывающим уже после чтения, ровно один раз */
+    private static <T extends Task> List<T> getAllByIds(Map<Integer, T> byId, Collection<Integer> ids) {
+        List<T> found = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            T t = byId.get(id);
+            if (t != null)
+                found.add(t);
+        }
+        return found;
+    }
+
+    private EpicRollup rollupOf(int epicId) {
+        return epicRollups.computeIfAbsent(epicId, id -> new EpicRollup());
     }
 
     private void setEpicTimeline(Epic epic) {
-        // Продолжительность эпика — сумма продолжительностей всех его подзадач
-        epic.setDuration(
-                epic.getSubTaskIds().stream()
-                        .map(subTasks::get)
-                        .map(SubTask::getDuration)
-                        .reduce(Duration.ZERO, Duration::plus)
-        );
-        // Время начала — дата старта самой ранней подзадачи
-        epic.setStartDateTime(
-                epic.getSubTaskIds().stream()
-                        .map(subTasks::get)
-                        .map(SubTask::getStartDateTime)
-                        .filter(Objects::nonNull)
-                        .min(LocalDateTime::compareTo)
-                        .orElse(null)
-        );
-        // время завершения — время окончания самой поздней из задач
-        epic.setEndDateTime(
-                epic.getSubTaskIds().stream()
-                        .map(subTasks::get)
-                        .filter(st -> st.getStartDateTime() != null)
-                        .map(SubTask::getEndDateTime)
-                        .max(LocalDateTime::compareTo)
-                        .orElse(null)
-        );
-    }
-}
\ No newline at end of file
+        rollupOf(epic.getId()).applyTimeline(epic);
+    }
+}
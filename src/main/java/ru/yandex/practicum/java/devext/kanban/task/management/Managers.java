@@ -1,7 +1,7 @@
 package ru.yandex.practicum.java.devext.kanban.task.management;
 
 import ru.yandex.practicum.java.devext.kanban.history.HistoryManager;
-import ru.yandex.practicum.java.devext.kanban.history.InMemoryHistoryManager;
+import ru.yandex.practicum.java.devext.kanban.history.ConcurrentHistoryManager;
 
 public class Managers {
 
@@ -10,6 +10,6 @@ public class Managers {
     }
 
     public static HistoryManager getDefaultHistory() {
-        return new InMemoryHistoryManager();
+        return new ConcurrentHistoryManager();
     }
 }
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.java.devext.kanban.task.management;
+
+import java.util.List;
+
+
+/**
+ * Страница списка в порядке возрастания ID.
+ * @param items элементы страницы
+ * @param nextCursor курсор следующей страницы (ID последнего элемента) или null, если страница последняя
+ */
+public record Page<T>(List<T> items, Integer nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,92 @@
+package ru.yandex.practicum.java.devext.kanban.task.management;
+
+import ru.yandex.practicum.java.devext.kanban.task.EpochSeconds;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+
+/**
+ * Потокобезопасный индекс задач и подзадач по приоритету. Ключ — пара (время начала, ID),
+ * поэтому задачи с одинаковым началом не вытесняют друг друга. В индекс попадают только задачи с заданным началом.
+ * Ключ запоминается в момент индексации, так что после изменения объекта задачу нужно добавить повторно.
+ * Представления и итераторы работают поверх {@link ConcurrentSkipListMap} без копирования и видят
+ * последующие изменения индекса.
+ */
+public class PrioritizedIndex implements Iterable<Task> {
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparingLong(Key::start).thenComparingInt(Key::id);
+
+    private final ConcurrentSkipListMap<Key, Task> taskByKey = new ConcurrentSkipListMap<>(KEY_ORDER);
+    private final Map<Task, Key> keyByTask = new ConcurrentHashMap<>();
+
+    /** Добавляет задачу в индекс или переиндексирует уже добавленную */
+    public void add(Task task) {
+        keyByTask.compute(task, (t, oldKey) -> {
+            if (oldKey != null)
+                taskByKey.remove(oldKey);
+            if (task.getStartEpochSecond() == EpochSeconds.NONE)
+                return null;
+            Key key = new Key(task.getStartEpochSecond(), task.getId());
+            taskByKey.put(key, task);
+            return key;
+        });
+    }
+
+    public void remove(Task task) {
+        keyByTask.computeIfPresent(task, (t, key) -> {
+            taskByKey.remove(key);
+            return null;
+        });
+    }
+
+    public void clear() {
+        keyByTask.keySet().forEach(this::remove);
+    }
+
+    public int size() {
+        return taskByKey.size();
+    }
+
+    /** Все задачи по возрастанию времени начала. Представление без копирования, только для чтения. */
+    public Collection<Task> view() {
+        return Collections.unmodifiableCollection(taskByKey.values());
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return view().iterator();
+    }
+
+    /** Первые {@code limit} задач по времени начала */
+    public List<Task> head(int limit) {
+        List<Task> head = new ArrayList<>(Math.min(limit, 64));
+        Iterator<Task> it = taskByKey.values().iterator();
+        while (head.size() < limit && it.hasNext())
+            head.add(it.next());
+        return head;
+    }
+
+    /** Задачи, начинающиеся в интервале [from, to). Любая из границ может быть null. Представление без копирования. */
+    public Collection<Task> startingBetween(LocalDateTime from, LocalDateTime to) {
+        ConcurrentNavigableMap<Key, Task> range = taskByKey;
+        if (from != null)
+            range = range.tailMap(new Key(EpochSeconds.ceil(from), Integer.MIN_VALUE), true);
+        if (to != null)
+            range = range.headMap(new Key(EpochSeconds.ceil(to), Integer.MIN_VALUE), false);
+        return Collections.unmodifiableCollection(range.values());
+    }
+
+    /** Начало в секундах, см. {@link EpochSeconds} */
+    private record Key(long start, int id) {
+    }
+}
@@ -0,0 +1,247 @@
+package ru.yandex.practicum.java.devext.kanban.task.management;
+
+import ru.yandex.practicum.java.devext.kanban.task.EpochSeconds;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+
+/**
+ * Интервальный индекс сроков исполнения задач и подзадач.
+ * AVL-дерево, упорядоченное по времени начала, в каждом узле хранит максимальное время окончания в поддереве,
+ * поэтому поиск пересечений стоит O(log n + k). В индекс попадают только задачи с заданными началом и длительностью.
+ * Границы интервала запоминаются в момент индексации, так что последующее изменение объекта задачи
+ * не ломает дерево — для переиндексации задачу нужно добавить повторно. Границы хранятся в секундах
+ * ({@link EpochSeconds}), поэтому узел не ссылается на объекты java.time.
+ * <p>
+ * Кроме того, узел хранит начало самой ранней задачи и наибольший промежуток между соседними задачами
+ * поддерева: по ним поиск ближайшего свободного интервала пропускает поддеревья без подходящего промежутка
+ * и для непересекающихся задач стоит O(log n).
+ */
+public class ScheduleIndex {
+
+    private Node root;
+    private long seq;
+    private final Map<Task, Node> nodeByTask = new HashMap<>();
+
+    /** Добавляет задачу в индекс или переиндексирует уже добавленную */
+    public synchronized void add(Task task) {
+        remove(task);
+        if (task.isScheduled()) {
+            Node n = new Node(task, task.getStartEpochSecond(), task.getEndEpochSecond(), seq++);
+            root = insert(root, n);
+            nodeByTask.put(task, n);
+        }
+    }
+
+    public synchronized void remove(Task task) {
+        Node n = nodeByTask.remove(task);
+        if (n != null)
+            root = delete(root, n);
+    }
+
+    public synchronized void clear() {
+        root = null;
+        nodeByTask.clear();
+    }
+
+    public synchronized int size() {
+        return nodeByTask.size();
+    }
+
+    /** Первая по времени начала задача, пересекающаяся с проверяемой. Сама проверяемая задача не учитывается. */
+    public synchronized Optional<Task> findOverlap(Task taskToCheck) {
+        if (!taskToCheck.isScheduled())
+            return Optional.empty();
+        List<Task> found = new ArrayList<>(1);
+        collect(root, taskToCheck.getStartEpochSecond(), taskToCheck.getEndEpochSecond(), taskToCheck, found, 1);
+        return found.stream().findFirst();
+    }
+
+    /** Задачи, чей срок исполнения пересекается с интервалом [from, to), в порядке времени начала */
+    public synchronized List<Task> findOverlaps(LocalDateTime from, LocalDateTime to) {
+        List<Task> found = new ArrayList<>();
+        collect(root, EpochSeconds.of(from), EpochSeconds.ceil(to), null, found, Integer.MAX_VALUE);
+        return found;
+    }
+
+    /** Задачи, начавшиеся раньше момента {@code moment} и ещё не закончившиеся к нему, в порядке времени начала */
+    public synchronized List<Task> runningAt(LocalDateTime moment) {
+        List<Task> found = new ArrayList<>(1);
+        collect(root, EpochSeconds.of(moment), EpochSeconds.ceil(moment), null, found, Integer.MAX_VALUE);
+        return found;
+    }
+
+    /**
+     * Самое раннее начало не раньше {@code notBefore}, с которого свободен интервал длиной {@code duration}.
+     * После последней задачи время свободно, поэтому ответ есть всегда. Начало округляется вверх до секунды.
+     */
+    public synchronized LocalDateTime findFreeSlot(LocalDateTime notBefore, Duration duration) {
+        long[] cursor = {EpochSeconds.ceil(notBefore)};
+        long start = earliestGap(root, cursor, EpochSeconds.of(duration));
+        return EpochSeconds.toDateTime(start != EpochSeconds.NONE ? start : cursor[0]);
+    }
+
+    /**
+     * Обход поддерева по времени начала. {@code cursor[0]} — момент, с которого время свободно с учётом уже
+     * пройденных задач. Поддерево, целиком закончившееся до него или без промежутка нужной длины, не обходится.
+     * @return начало подходящего промежутка или {@link EpochSeconds#NONE}, если в поддереве его нет
+     */
+    private static long earliestGap(Node n, long[] cursor, long length) {
+        if (n == null || n.maxEnd <= cursor[0])
+            return EpochSeconds.NONE;
+        if (n.minStart - cursor[0] < length && n.maxGap < length) {
+            cursor[0] = n.maxEnd;
+            return EpochSeconds.NONE;
+        }
+        long found = earliestGap(n.left, cursor, length);
+        if (found != EpochSeconds.NONE)
+            return found;
+        if (n.start - cursor[0] >= length)
+            return cursor[0];
+        cursor[0] = Math.max(cursor[0], n.end);
+        return earliestGap(n.right, cursor, length);
+    }
+
+    private static void collect(Node n, long from, long to, Task excluded, List<Task> found, int limit) {
+        if (n == null || found.size() >= limit || n.maxEnd <= from)
+            return;
+        collect(n.left, from, to, excluded, found, limit);
+        if (found.size() >= limit || n.start >= to)
+            return;
+        if (n.end > from && !n.task.equals(excluded))
+            found.add(n.task);
+        collect(n.right, from, to, excluded, found, limit);
+    }
+
+    private static Node insert(Node n, Node newNode) {
+        if (n == null)
+            return newNode;
+        if (compare(newNode, n) < 0)
+            n.left = insert(n.left, newNode);
+        else
+            n.right = insert(n.right, newNode);
+        return rebalance(n);
+    }
+
+    private static Node delete(Node n, Node target) {
+        if (n == null)
+            return null;
+        int cmp = compare(target, n);
+        if (cmp < 0)
+            n.left = delete(n.left, target);
+        else if (cmp > 0)
+            n.right = delete(n.right, target);
+        else {
+            if (n.left == null)
+                return n.right;
+            if (n.right == null)
+                return n.left;
+            Node successor = n.right;
+            while (successor.left != null)
+                successor = successor.left;
+            successor.right = deleteMin(n.right);
+            successor.left = n.left;
+            return rebalance(successor);
+        }
+        return rebalance(n);
+    }
+
+    private static Node deleteMin(Node n) {
+        if (n.left == null)
+            return n.right;
+        n.left = deleteMin(n.left);
+        return rebalance(n);
+    }
+
+    private static int compare(Node a, Node b) {
+        int cmp = Long.compare(a.start, b.start);
+        return cmp != 0 ? cmp : Long.compare(a.seq, b.seq);
+    }
+
+    private static Node rebalance(Node n) {
+        update(n);
+        int balance = height(n.left) - height(n.right);
+        if (balance > 1) {
+            if (height(n.left.left) < height(n.left.right))
+                n.left = rotateLeft(n.left);
+            return rotateRight(n);
+        } else if (balance < -1) {
+            if (height(n.right.right) < height(n.right.left))
+                n.right = rotateRight(n.right);
+            return rotateLeft(n);
+        }
+        return n;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private static void update(Node n) {
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+        long maxEnd = n.end;
+        if (n.left != null)
+            maxEnd = Math.max(maxEnd, n.left.maxEnd);
+        if (n.right != null)
+            maxEnd = Math.max(maxEnd, n.right.maxEnd);
+        n.maxEnd = maxEnd;
+        n.minStart = n.left != null ? n.left.minStart : n.start;
+        long maxGap = Long.MIN_VALUE;
+        long coveredUntil = n.end;
+        if (n.left != null) {
+            maxGap = Math.max(n.left.maxGap, n.start - n.left.maxEnd);
+            coveredUntil = Math.max(coveredUntil, n.left.maxEnd);
+        }
+        if (n.right != null)
+            maxGap = Math.max(maxGap, Math.max(n.right.maxGap, n.right.minStart - coveredUntil));
+        n.maxGap = maxGap;
+    }
+
+    private static int height(Node n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static class Node {
+        final Task task;
+        final long start, end;
+        final long seq;
+        long maxEnd;
+        long minStart;
+        /**
+         * Наибольший промежуток перед задачей поддерева, кроме самой ранней, до конца предшествующих ей задач
+         * того же поддерева. Если задачи пересекаются, это лишь оценка сверху, и поиск просто обходит лишнее.
+         */
+        long maxGap = Long.MIN_VALUE;
+        int height = 1;
+        Node left, right;
+
+        Node(Task task, long start, long end, long seq) {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+            this.seq = seq;
+            maxEnd = end;
+            minStart = start;
+        }
+    }
+}
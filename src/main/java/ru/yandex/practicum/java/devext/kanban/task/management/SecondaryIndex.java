@@ -0,0 +1,74 @@
+package ru.yandex.practicum.java.devext.kanban.task.management;
+
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+
+/**
+ * Потокобезопасный вторичный индекс: значение атрибута (статус, ID эпика) → задачи с этим значением в порядке ID.
+ * Как и в {@link PrioritizedIndex}, значение запоминается в момент индексации, поэтому после изменения объекта
+ * задачу нужно добавить повторно. Задачи, для которых атрибут равен null, в индекс не попадают.
+ */
+public class SecondaryIndex<K, T extends Task> {
+
+    private final Function<? super T, ? extends K> keyOf;
+    private final Map<K, ConcurrentSkipListMap<Integer, T>> tasksByKey = new ConcurrentHashMap<>();
+    private final Map<Integer, K> keyById = new ConcurrentHashMap<>();
+
+    public SecondaryIndex(Function<? super T, ? extends K> keyOf) {
+        this.keyOf = keyOf;
+    }
+
+    /** Добавляет задачу в индекс или переиндексирует уже добавленную */
+    public void add(T task) {
+        keyById.compute(task.getId(), (id, oldKey) -> {
+            K key = keyOf.apply(task);
+            if (oldKey != null && !oldKey.equals(key))
+                unbucket(oldKey, id);
+            if (key == null)
+                return null;
+            tasksByKey.compute(key, (k, bucket) -> {
+                if (bucket == null)
+                    bucket = new ConcurrentSkipListMap<>();
+                bucket.put(id, task);
+                return bucket;
+            });
+            return key;
+        });
+    }
+
+    public void remove(int id) {
+        keyById.computeIfPresent(id, (i, key) -> {
+            unbucket(key, id);
+            return null;
+        });
+    }
+
+    public void clear() {
+        keyById.keySet().forEach(this::remove);
+    }
+
+    /** Значение атрибута, под которым задача проиндексирована; null, если её нет в индексе */
+    public K indexedKey(int id) {
+        return keyById.get(id);
+    }
+
+    /** Задачи с заданным значением атрибута по возрастанию ID. Представление без копирования, только для чтения. */
+    public NavigableMap<Integer, T> get(K key) {
+        ConcurrentSkipListMap<Integer, T> bucket = tasksByKey.get(key);
+        return bucket == null ? Collections.emptyNavigableMap() : Collections.unmodifiableNavigableMap(bucket);
+    }
+
+    /** Опустевшая корзина удаляется, иначе после удаления эпиков оставались бы пустые корзины по их ID */
+    private void unbucket(K key, int id) {
+        tasksByKey.computeIfPresent(key, (k, bucket) -> {
+            bucket.remove(id);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.java.devext.kanban.task.management;
+
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ * Общие экземпляры повторяющихся имён и описаний задач одного менеджера. Строки удерживаются слабо:
+ * запись пропадает, когда на строку не ссылается ни одна задача. Не потокобезопасен — менеджер
+ * вызывает его только при сохранении задачи, под блокировкой записи.
+ */
+public class StringPool {
+
+    private final Map<String, WeakReference<String>> pool = new WeakHashMap<>();
+
+    /** Заменяет имя и описание задачи уже сохранёнными равными строками */
+    public void share(Task task) {
+        task.setName(canonical(task.getName()));
+        task.setDescription(canonical(task.getDescription()));
+    }
+
+    public String canonical(String s) {
+        if (s == null)
+            return null;
+        WeakReference<String> ref = pool.get(s);
+        String shared = ref != null ? ref.get() : null;
+        if (shared != null)
+            return shared;
+        pool.put(s, new WeakReference<>(s));
+        return s;
+    }
+}
@@ -1,11 +1,17 @@
 package ru.yandex.practicum.java.devext.kanban.task.management;
 
+import ru.yandex.practicum.java.devext.kanban.metrics.MetricsRegistry;
 import ru.yandex.practicum.java.devext.kanban.task.Epic;
 import ru.yandex.practicum.java.devext.kanban.task.SubTask;
 import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.TaskStatus;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 
 public interface TaskManager {
     void addTask(Task task);
@@ -14,12 +20,40 @@ public interface TaskManager {
 
     void addSubTask(SubTask subTask, Epic epic);
 
+    /** Добавляет пакет новых задач целиком или, если хотя бы одна не прошла проверку, не добавляет ни одной */
+    void addTasks(List<Task> tasks);
+
+    /** Добавляет пакет новых подзадач в эпики по их epicId: целиком или ни одной */
+    void addSubTasks(List<SubTask> subTasks);
+
     List<Task> getTasks();
 
     List<Epic> getEpics();
 
     List<SubTask> getSubTasks();
 
+    /**
+     * Страница задач в порядке возрастания ID.
+     * @param limit максимальный размер страницы
+     * @param cursor {@link Page#nextCursor()} предыдущей страницы или null для первой
+     */
+    Page<Task> getTasks(int limit, Integer cursor);
+
+    /** Страница эпиков в порядке возрастания ID, см. {@link #getTasks(int, Integer)} */
+    Page<Epic> getEpics(int limit, Integer cursor);
+
+    /** Страница подзадач в порядке возрастания ID, см. {@link #getTasks(int, Integer)} */
+    Page<SubTask> getSubTasks(int limit, Integer cursor);
+
+    /** Страница задач в статусе {@code status} (null — в любом), выбирается по вторичному индексу */
+    Page<Task> getTasks(TaskStatus status, int limit, Integer cursor);
+
+    /** Страница эпиков в статусе {@code status} (null — в любом), выбирается по вторичному индексу */
+    Page<Epic> getEpics(TaskStatus status, int limit, Integer cursor);
+
+    /** Страница подзадач в статусе {@code status} эпика {@code epicId}. Фильтр, равный null, не применяется. */
+    Page<SubTask> getSubTasks(TaskStatus status, Integer epicId, int limit, Integer cursor);
+
     void removeAllTasks();
 
     void removeAllEpics();
@@ -32,23 +66,86 @@ public interface TaskManager {
 
     void removeSubTask(int id);
 
+    /** Удаляет задачи с указанными ID. Если какой-то из них нет, не удаляется ни одна. */
+    void removeTasks(Collection<Integer> ids);
+
+    /** Удаляет подзадачи с указанными ID. Если какой-то из них нет, не удаляется ни одна. */
+    void removeSubTasks(Collection<Integer> ids);
+
     Task getTaskById(Integer id);
 
     Epic getEpicById(Integer id);
 
     SubTask getSubTaskById(Integer id);
 
+    List<Task> getTasksByIds(Collection<Integer> ids);
+
+    List<SubTask> getSubTasksByIds(Collection<Integer> ids);
+
+    /**
+     * Заменяет задачу с тем же ID. Если версия обновления не 0 и не равна хранимой — {@link VersionConflictException},
+     * иначе обновлению назначается следующая версия (compare-and-set по {@link Task#getVersion()}).
+     */
     void updateTask(Task updatedTask);
 
+    /** Заменяет эпик с проверкой версии, см. {@link #updateTask(Task)} */
     void updateEpic(Epic updatedEpic);
 
+    /** Заменяет подзадачу с проверкой версии, см. {@link #updateTask(Task)} */
     void updateSubTask(SubTask updatedSubTask);
 
     List<SubTask> getSubTasksForEpic(Epic epic);
 
+    /** Сводные показатели эпика без перебора подзадач. Эпик в историю просмотров не попадает. */
+    EpicSummary getEpicSummary(int epicId);
+
     List<Task> getHistory();
 
     int getNextId();
 
+    /**
+     * Версия коллекции: монотонно растёт при каждом её изменении через менеджер.
+     * Одинаковая версия означает, что содержимое коллекции не менялось.
+     */
+    long getVersion(CollectionKind kind);
+
     LinkedList<Task> getPrioritizedTasks();
+
+    /** Первые {@code limit} задач по приоритету */
+    List<Task> getPrioritizedTasks(int limit);
+
+    /**
+     * Задачи и подзадачи по приоритету, чей срок исполнения пересекается с интервалом [from, to): сначала начавшиеся
+     * раньше {@code from} и ещё не закончившиеся, затем начинающиеся в интервале. Граница, равная null, не ограничивает.
+     * Выбираются по индексам времени без обхода всего списка, не более {@code limit}.
+     * Если заданы обе границы и {@code from} не раньше {@code to} — {@link IllegalArgumentException}.
+     */
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Задачи по приоритету: представление только для чтения, без копирования. Меняется вместе с менеджером,
+     * поэтому при одновременных изменениях может показать их частично; согласованный список — {@link #getPrioritizedTasks()}.
+     */
+    Collection<Task> getPrioritizedTasksView();
+
+    /**
+     * Самое раннее начало интервала длиной {@code duration}, свободного от сроков задач и подзадач.
+     * Ищется по {@link ScheduleIndex} за O(log n) без перебора задач.
+     * @param notBefore интервал начинается не раньше; null — не раньше текущего момента
+     * @param notAfter интервал заканчивается не позже; null — без ограничения
+     * @return пусто, если до {@code notAfter} подходящего интервала нет
+     */
+    Optional<LocalDateTime> findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter);
+
+    /**
+     * Добавляет новую задачу, назначив ей начало в самом раннем свободном интервале её длительности,
+     * см. {@link #findFreeSlot(Duration, LocalDateTime, LocalDateTime)}. Если интервала нет —
+     * {@link ExecutionDateTimeOverlapException}. Задача не в статусе NEW или без длительности —
+     * {@link IllegalArgumentException}.
+     */
+    void addTaskToFreeSlot(Task task, LocalDateTime notBefore, LocalDateTime notAfter);
+
+    /** Регистрирует метрики состояния менеджера: размеры коллекций, истории, длительность сохранения */
+    default void registerMetrics(MetricsRegistry registry) {
+    }
 }
@@ -0,0 +1,8 @@
+package ru.yandex.practicum.java.devext.kanban.task.management;
+
+/** Задачу успели изменить: версия обновления не совпала с версией в менеджере */
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.java.devext.kanban.task.management.filebacked;
+
+import lombok.Builder;
+import lombok.Getter;
+import java.time.Duration;
+
+/** Настройки сохранения данных {@link FileBackedTaskManager} */
+@Getter
+@Builder
+public class BackupConfig {
+
+    @Builder.Default
+    private final PersistenceMode mode = PersistenceMode.SNAPSHOT;
+    /** Формат, в котором пишется снимок. Читается снимок в любом формате, он определяется по заголовку файла. */
+    @Builder.Default
+    private final SnapshotFormat snapshotFormat = SnapshotFormat.CSV;
+    /** Количество записей в журнале, после которого в фоне делается контрольная точка */
+    @Builder.Default
+    private final int checkpointThreshold = 10_000;
+    /** Объём записей в журнале в байтах, после которого в фоне делается контрольная точка */
+    @Builder.Default
+    private final long checkpointJournalBytes = 64L * 1024 * 1024;
+    /** Период фоновой контрольной точки, если с прошлой в журнале появились записи. null — без периода. */
+    private final Duration checkpointInterval;
+    /** Когда записи журнала сбрасываются на диск. Используется только в режиме {@link PersistenceMode#JOURNAL}. */
+    @Builder.Default
+    private final DurabilityPolicy durabilityPolicy = DurabilityPolicy.perWrite();
+
+    public static BackupConfig defaults() {
+        return BackupConfig.builder().build();
+    }
+}
@@ -0,0 +1,222 @@
+package ru.yandex.practicum.java.devext.kanban.task.management.filebacked;
+
+import ru.yandex.practicum.java.devext.kanban.task.Epic;
+import ru.yandex.practicum.java.devext.kanban.task.SubTask;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.TaskStatus;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import static java.nio.file.StandardOpenOption.*;
+
+
+/**
+ * Двоичный снимок состояния. Файл состоит из заголовка, записей фиксированной длины и таблицы строк.
+ * Время хранится как секунды от эпохи плюс наносекунды, а имена и описания — индексами в таблице строк,
+ * поэтому повторяющиеся строки записываются один раз. Файл читается через {@link MappedByteBuffer}.
+ * <pre>
+ * заголовок: magic(4) version(2) records(4) stringsOffset(8) crc32(4)
+ * запись:    id(4) type(1) status(1) epicId(4) name(4) description(4)
+ *            startSeconds(8) startNanos(4) durationSeconds(8) durationNanos(4) version(8)
+ * строки:    count(4), затем length(4) и UTF-8 байты каждой строки
+ * </pre>
+ * Отсутствующее время или длительность записываются как {@link Long#MIN_VALUE}, отсутствующая строка — как -1.
+ * Снимки первой версии формата записаны без поля version и читаются с версией задачи 1.
+ */
+public class BinarySnapshot {
+
+    public static final int MAGIC = 0x4B42534E; // "KBSN"
+    public static final short VERSION = 2;
+    private static final short UNVERSIONED_RECORDS = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 4 + 8 + 4;
+    private static final int RECORD_BYTES = 4 + 1 + 1 + 4 + 4 + 4 + 8 + 4 + 8 + 4 + 8;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int NULL_STRING = -1;
+
+    private BinarySnapshot() {
+    }
+
+    /** Проверяет по заголовку, что файл записан в этом формате */
+    public static boolean isBinary(Path path) {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            return channel.read(magic, 0) == Integer.BYTES && magic.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            throw new ManagerLoadException("IOException for " + path);
+        }
+    }
+
+    public static void write(Path path, Collection<? extends Task> tasks) {
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        ByteBuffer records = ByteBuffer.allocate(tasks.size() * RECORD_BYTES);
+        for (Task task : tasks) {
+            LocalDateTime start = task instanceof Epic ? null : task.getStartDateTime();
+            Duration duration = task instanceof Epic ? null : task.getDuration();
+            records.putInt(task.getId())
+                    .put(ordinalByte(JournalRecord.EntityType.of(task)))
+                    .put(ordinalByte(task.getStatus()))
+                    .putInt(task instanceof SubTask st ? st.getEpicId() : -1)
+                    .putInt(stringId(task.getName(), stringIds, strings))
+                    .putInt(stringId(task.getDescription(), stringIds, strings))
+                    .putLong(start != null ? start.toEpochSecond(ZoneOffset.UTC) : NULL_TIME)
+                    .putInt(start != null ? start.getNano() : 0)
+                    .putLong(duration != null ? duration.getSeconds() : NULL_TIME)
+                    .putInt(duration != null ? duration.getNano() : 0)
+                    .putLong(task.getVersion());
+        }
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            channel.position(HEADER_BYTES);
+            OutputStream stream = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CrcOutputStream(stream, crc), 1 << 16));
+            out.write(records.array());
+            out.writeInt(strings.size());
+            for (String s : strings) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putShort(VERSION)
+                    .putInt(tasks.size())
+                    .putLong(HEADER_BYTES + (long) records.capacity())
+                    .putInt((int) crc.getValue())
+                    .flip();
+            while (header.hasRemaining())
+                channel.write(header, header.position());
+            channel.force(false);
+        } catch (IOException e) {
+            throw new ManagerSaveException();
+        }
+    }
+
+    /** Передаёт каждую задачу снимка получателю в порядке записи */
+    public static void read(Path path, Consumer<Task> consumer) {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC)
+                throw new ManagerLoadException("File " + path + " is not a binary snapshot");
+            short version = buf.getShort();
+            if (version != VERSION && version != UNVERSIONED_RECORDS)
+                throw new ManagerLoadException("Unsupported snapshot version " + version + " in " + path);
+            int count = buf.getInt();
+            long stringsOffset = buf.getLong();
+            int checksum = buf.getInt();
+            int recordBytes = version == UNVERSIONED_RECORDS ? RECORD_BYTES - Long.BYTES : RECORD_BYTES;
+            if (stringsOffset != HEADER_BYTES + (long) count * recordBytes || stringsOffset > buf.limit())
+                throw new ManagerLoadException("Snapshot " + path + " is truncated");
+            CRC32 crc = new CRC32();
+            crc.update(buf.slice(HEADER_BYTES, buf.limit() - HEADER_BYTES));
+            if ((int) crc.getValue() != checksum)
+                throw new ManagerLoadException("Snapshot " + path + " is corrupted");
+            String[] strings = readStrings(buf.position((int) stringsOffset));
+            buf.position(HEADER_BYTES);
+            for (int i = 0; i < count; i++)
+                consumer.accept(readRecord(buf, strings, version != UNVERSIONED_RECORDS));
+        } catch (IOException | IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new ManagerLoadException("Cannot read snapshot " + path);
+        }
+    }
+
+    private static Task readRecord(ByteBuffer buf, String[] strings, boolean versioned) {
+        int id = buf.getInt();
+        JournalRecord.EntityType type = JournalRecord.EntityType.values()[buf.get()];
+        TaskStatus status = TaskStatus.values()[buf.get()];
+        int epicId = buf.getInt();
+        String name = string(strings, buf.getInt());
+        Task task = switch (type) {
+            case EPIC -> new Epic(id, name);
+            case SUBTASK -> new SubTask(id, name);
+            case TASK -> new Task(id, name);
+        };
+        task.setStatus(status);
+        task.setDescription(string(strings, buf.getInt()));
+        if (task instanceof SubTask st)
+            st.setEpicId(epicId);
+        long startSeconds = buf.getLong();
+        int startNanos = buf.getInt();
+        long durationSeconds = buf.getLong();
+        int durationNanos = buf.getInt();
+        if (startSeconds != NULL_TIME)
+            task.setStartDateTime(LocalDateTime.ofEpochSecond(startSeconds, startNanos, ZoneOffset.UTC));
+        if (durationSeconds != NULL_TIME)
+            task.setDuration(Duration.ofSeconds(durationSeconds, durationNanos));
+        task.setVersion(versioned ? buf.getLong() : 1);
+        return task;
+    }
+
+    private static String[] readStrings(ByteBuffer buf) {
+        String[] strings = new String[buf.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buf.getInt()];
+            buf.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static String string(String[] strings, int index) {
+        return index == NULL_STRING ? null : strings[index];
+    }
+
+    /** Порядковый номер перечисления в однобайтовом поле записи */
+    private static byte ordinalByte(Enum<?> value) {
+        int ordinal = value.ordinal();
+        if (ordinal > Byte.MAX_VALUE)
+            throw new IllegalStateException(value + " does not fit into a snapshot byte field");
+        return (byte) ordinal;
+    }
+
+    private static int stringId(String s, Map<String, Integer> stringIds, List<String> strings) {
+        if (s == null)
+            return NULL_STRING;
+        return stringIds.computeIfAbsent(s, k -> {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+
+    /** Считает CRC32 по всему, что пишется после заголовка */
+    private static class CrcOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final CRC32 crc;
+
+        CrcOutputStream(OutputStream out, CRC32 crc) {
+            this.out = out;
+            this.crc = crc;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            crc.update(b);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            crc.update(b, off, len);
+            out.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.yandex.practicum.java.devext.kanban.task.management.filebacked;
+
+import lombok.Getter;
+import java.util.concurrent.TimeUnit;
+
+/** Когда записи журнала сбрасываются на диск (fsync) */
+@Getter
+public class DurabilityPolicy {
+
+    public enum Kind {
+        /** Каждое изменение ждёт fsync. Одновременные изменения разделяют один fsync. */
+        PER_WRITE,
+        /** fsync не реже, чем раз в заданное количество миллисекунд */
+        INTERVAL,
+        /** fsync после накопления заданного количества записей */
+        BATCH
+    }
+
+    private final Kind kind;
+    private final long value;
+
+    private DurabilityPolicy(Kind kind, long value) {
+        if (value < 1 && kind != Kind.PER_WRITE)
+            throw new IllegalArgumentException("Durability policy " + kind + " requires a positive value");
+        this.kind = kind;
+        this.value = value;
+    }
+
+    public static DurabilityPolicy perWrite() {
+        return new DurabilityPolicy(Kind.PER_WRITE, 0);
+    }
+
+    public static DurabilityPolicy everyMillis(long millis) {
+        return new DurabilityPolicy(Kind.INTERVAL, millis);
+    }
+
+    public static DurabilityPolicy everyOps(int ops) {
+        return new DurabilityPolicy(Kind.BATCH, ops);
+    }
+
+    /** Разбирает строку вида {@code per-write}, {@code interval:50} или {@code batch:100} */
+    public static DurabilityPolicy parse(String s) {
+        String[] parts = s.trim().toLowerCase().split(":");
+        return switch (parts[0]) {
+            case "per-write" -> perWrite();
+            case "interval" -> everyMillis(Long.parseLong(parts[1]));
+            case "batch" -> everyOps(Integer.parseInt(parts[1]));
+            default -> throw new IllegalArgumentException("Unknown durability policy: " + s);
+        };
+    }
+
+    long intervalNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.PER_WRITE ? "per-write" : kind.name().toLowerCase() + ":" + value;
+    }
+}
@@ -2,124 +2,476 @@ package ru.yandex.practicum.java.devext.kanban.task.management.filebacked;
 
 import com.opencsv.*;
 import com.opencsv.exceptions.CsvValidationException;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.java.devext.kanban.metrics.Gauge;
+import ru.yandex.practicum.java.devext.kanban.metrics.Histogram;
+import ru.yandex.practicum.java.devext.kanban.metrics.MetricsRegistry;
 import ru.yandex.practicum.java.devext.kanban.task.Epic;
 import ru.yandex.practicum.java.devext.kanban.task.TaskStatus;
 import ru.yandex.practicum.java.devext.kanban.task.SubTask;
 import ru.yandex.practicum.java.devext.kanban.task.Task;
 import ru.yandex.practicum.java.devext.kanban.task.management.InMemoryTaskManager;
+import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static ru.yandex.practicum.java.devext.kanban.task.management.CommonDateTimeFormatter.ISO_LOCAL;
+import static ru.yandex.practicum.java.devext.kanban.task.management.filebacked.JournalRecord.delete;
+import static ru.yandex.practicum.java.devext.kanban.task.management.filebacked.JournalRecord.upsert;
 
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+@Slf4j
+public class FileBackedTaskManager extends InMemoryTaskManager implements Closeable {
 
     private final Path backupFilePath;
+    private final BackupConfig config;
+    private final TaskJournal journal;
+    private final GroupCommitWriter writer;
+    private final ReentrantLock mutationLock = new ReentrantLock();
+    /** Контрольные точки выполняются по одной: фоновая и синхронная не пишут снимок одновременно */
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    private final ScheduledExecutorService checkpointer;
+    private final AtomicReference<CompletableFuture<Void>> scheduledCheckpoint = new AtomicReference<>();
+    /** Меняются под mutationLock, читаются и потоком фоновых контрольных точек */
+    private volatile long recordsSinceCheckpoint, bytesSinceCheckpoint;
+    private final Histogram saveDuration = new Histogram();
+    private final Histogram backgroundCheckpointDuration = new Histogram();
+    private final long restoreNanos;
     private static final String[] CSV_BACKUP_HEADER = {
-            "id", "type", "name", "status", "description", "epicId", "startDateTime", "durationMinutes"
+            "id", "type", "name", "status", "description", "epicId", "startDateTime", "durationMinutes", "version"
     };
 
     public FileBackedTaskManager(Path backupFilePath) {
+        this(backupFilePath, BackupConfig.defaults());
+    }
+
+    public FileBackedTaskManager(Path backupFilePath, BackupConfig config) {
         super();
         this.backupFilePath = backupFilePath;
+        this.config = config;
+        journal = config.getMode() == PersistenceMode.JOURNAL ? new TaskJournal(journalPath(backupFilePath)) : null;
+        long restoreStart = System.nanoTime();
         restoreFromBackup(backupFilePath);
+        restoreNanos = System.nanoTime() - restoreStart;
+        writer = journal != null ? new GroupCommitWriter(journal, config.getDurabilityPolicy()) : null;
+        checkpointer = journal != null ? createCheckpointer() : null;
+        if (journal != null && Files.exists(retiredJournalPath(backupFilePath)))
+            checkpoint();
+    }
+
+    public static Path journalPath(Path backupFilePath) {
+        return backupFilePath.resolveSibling(backupFilePath.getFileName() + ".journal");
+    }
+
+    /** Журнал, отложенный фоновой контрольной точкой до записи снимка. Удаляется, когда снимок сохранён. */
+    public static Path retiredJournalPath(Path backupFilePath) {
+        return backupFilePath.resolveSibling(backupFilePath.getFileName() + ".journal.old");
     }
 
     @Override
     public void addTask(Task newTask) {
-        super.addTask(newTask);
-        save();
+        mutate(() -> {
+            super.addTask(newTask);
+            return tasks.get(newTask.getId()) == newTask ? List.of(upsert(newTask)) : List.of();
+        });
+    }
+
+    /** Поиск интервала и добавление под одной блокировкой изменений; запись в журнал делает вложенный addTask */
+    @Override
+    public void addTaskToFreeSlot(Task newTask, LocalDateTime notBefore, LocalDateTime notAfter) {
+        mutate(() -> {
+            super.addTaskToFreeSlot(newTask, notBefore, notAfter);
+            return List.of();
+        });
     }
 
     @Override
     public void addEpic(Epic newEpic) {
-        super.addEpic(newEpic);
-        save();
+        mutate(() -> {
+            super.addEpic(newEpic);
+            return List.of(upsert(newEpic));
+        });
     }
 
     @Override
     public void addSubTask(SubTask newSubTask, Epic epic) {
-        super.addSubTask(newSubTask, epic);
-        save();
+        mutate(() -> {
+            super.addSubTask(newSubTask, epic);
+            return subTasks.get(newSubTask.getId()) == newSubTask ? List.of(upsert(newSubTask)) : List.of();
+        });
+    }
+
+    /** Весь пакет — одно изменение: одна запись в журнал или одна перезапись снимка */
+    @Override
+    public void addTasks(List<Task> newTasks) {
+        mutate(() -> {
+            super.addTasks(newTasks);
+            return newTasks.stream()
+                    .map(JournalRecord::upsert)
+                    .toList();
+        });
+    }
+
+    @Override
+    public void addSubTasks(List<SubTask> newSubTasks) {
+        mutate(() -> {
+            super.addSubTasks(newSubTasks);
+            return Stream.concat(newSubTasks.stream(), affectedEpics(newSubTasks))
+                    .map(JournalRecord::upsert)
+                    .toList();
+        });
     }
 
     @Override
     public void removeAllTasks() {
-        super.removeAllTasks();
-        save();
+        mutate(() -> {
+            List<Task> removed = new ArrayList<>(tasks.values());
+            super.removeAllTasks();
+            return removed.stream()
+                    .filter(t -> !tasks.containsKey(t.getId()))
+                    .map(JournalRecord::delete)
+                    .toList();
+        });
     }
 
+    /** Эпики и подзадачи удаляются по одному через переопределённые методы, которые сами пишут журнал */
     @Override
     public void removeAllEpics() {
-        super.removeAllEpics();
-        save();
+        mutate(() -> {
+            super.removeAllEpics();
+            return List.of();
+        });
     }
 
     @Override
     public void removeAllSubTasks() {
-        super.removeAllSubTasks();
-        save();
+        mutate(() -> {
+            super.removeAllSubTasks();
+            return List.of();
+        });
     }
 
     @Override
     public void removeTask(int id) {
-        super.removeTask(id);
-        save();
+        mutate(() -> {
+            Task removed = tasks.get(id);
+            super.removeTask(id);
+            return removed != null ? List.of(delete(removed)) : List.of();
+        });
     }
 
     @Override
     public void removeEpic(int id) {
-        super.removeEpic(id);
-        save();
+        mutate(() -> {
+            Epic removed = epics.get(id);
+            super.removeEpic(id);
+            return removed != null && !epics.containsKey(id) ? List.of(delete(removed)) : List.of();
+        });
     }
 
     @Override
     public void removeSubTask(int id) {
-        super.removeSubTask(id);
-        save();
+        mutate(() -> {
+            SubTask removed = subTasks.get(id);
+            super.removeSubTask(id);
+            return removed != null ? List.of(delete(removed), upsert(epics.get(removed.getEpicId()))) : List.of();
+        });
+    }
+
+    @Override
+    public void removeTasks(Collection<Integer> ids) {
+        mutate(() -> {
+            List<Task> removed = ids.stream().distinct().map(tasks::get).toList();
+            super.removeTasks(ids);
+            return removed.stream()
+                    .map(JournalRecord::delete)
+                    .toList();
+        });
+    }
+
+    @Override
+    public void removeSubTasks(Collection<Integer> ids) {
+        mutate(() -> {
+            List<SubTask> removed = ids.stream().distinct().map(subTasks::get).toList();
+            super.removeSubTasks(ids);
+            return Stream.concat(removed.stream().map(JournalRecord::delete),
+                            affectedEpics(removed).map(JournalRecord::upsert))
+                    .toList();
+        });
     }
 
     @Override
     public void updateTask(Task updatedTask) {
-        super.updateTask(updatedTask);
-        save();
+        mutate(() -> {
+            super.updateTask(updatedTask);
+            return List.of(upsert(updatedTask));
+        });
     }
 
     @Override
     public void updateEpic(Epic updatedEpic) {
-        super.updateEpic(updatedEpic);
-        save();
+        mutate(() -> {
+            super.updateEpic(updatedEpic);
+            return List.of(upsert(updatedEpic));
+        });
     }
 
     @Override
     public void updateSubTask(SubTask st) {
-        super.updateSubTask(st);
-        save();
+        mutate(() -> {
+            super.updateSubTask(st);
+            return List.of(upsert(st), upsert(epics.get(st.getEpicId())));
+        });
+    }
+
+    /** Длительность сохранений копится с момента создания менеджера, поэтому учитываются и сохранения до регистрации */
+    @Override
+    public void registerMetrics(MetricsRegistry registry) {
+        super.registerMetrics(registry);
+        registry.register("kanban_snapshot_save_duration_seconds", "Full snapshot write latency", saveDuration);
+        registry.register("kanban_background_checkpoint_duration_seconds",
+                "Background snapshot and journal compaction latency", backgroundCheckpointDuration);
+        registry.register("kanban_restore_duration_seconds", "Time spent restoring state from the backup on startup",
+                new Gauge(() -> restoreNanos / 1e9));
+    }
+
+    /** Записывает полный снимок состояния и очищает журнал. Изменения на это время останавливаются. */
+    public void checkpoint() {
+        checkpointLock.lock();
+        mutationLock.lock();
+        try {
+            if (writer != null)
+                writer.awaitDurable(writer.submit(List.of()));
+            save();
+            if (journal != null) {
+                journal.truncate();
+                Files.deleteIfExists(retiredJournalPath(backupFilePath));
+            }
+            recordsSinceCheckpoint = 0;
+            bytesSinceCheckpoint = 0;
+        } catch (IOException e) {
+            throw new ManagerSaveException();
+        } finally {
+            mutationLock.unlock();
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * Запускает контрольную точку в фоне, не останавливая изменения. Журнал откладывается, и новые записи идут
+     * в новый файл. Снимок пишется прямо из хранилищ, пока изменения продолжаются, и может частично содержать
+     * более поздние изменения — но все они есть в новом журнале, а его записи несут полное состояние задачи,
+     * так что при восстановлении поверх снимка получается то же состояние. Отложенный журнал удаляется,
+     * когда снимок и все записи, которые он мог увидеть, сохранены на диск.
+     * @return завершается вместе с ближайшей фоновой контрольной точкой; без журнала — сразу
+     */
+    public CompletableFuture<Void> checkpointInBackground() {
+        if (checkpointer == null)
+            return CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        CompletableFuture<Void> scheduled = scheduledCheckpoint.compareAndExchange(null, next);
+        if (scheduled != null)
+            return scheduled;
+        try {
+            checkpointer.execute(() -> runBackgroundCheckpoint(next));
+        } catch (RejectedExecutionException e) {
+            scheduledCheckpoint.compareAndSet(next, null);
+            next.completeExceptionally(e);
+        }
+        return next;
+    }
+
+    /** Завершается, когда все изменения, сделанные к этому моменту, сохранены на диск */
+    public CompletableFuture<Void> whenDurable() {
+        return writer != null ? writer.whenDurable() : CompletableFuture.completedFuture(null);
+    }
+
+    /** Дожидается начатой контрольной точки и сохранения журнала на диск и освобождает файл */
+    @Override
+    public void close() throws IOException {
+        if (checkpointer != null) {
+            checkpointer.shutdown();
+            try {
+                if (!checkpointer.awaitTermination(1, TimeUnit.MINUTES))
+                    log.warn("Background checkpoint of {} did not finish in time", backupFilePath);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (writer != null) {
+            writer.close();
+            journal.close();
+        }
+    }
+
+    /**
+     * Изменения выполняются по одному, поэтому записи попадают в журнал в порядке применения.
+     * При политике {@link DurabilityPolicy.Kind#PER_WRITE} fsync ожидается уже после снятия блокировки,
+     * чтобы одновременные изменения успели попасть в одну групповую запись. Вложенное изменение fsync
+     * не ждёт: внешнее ещё держит версию состояния на запись, а его собственная запись идёт в журнал позже.
+     */
+    private void mutate(Supplier<List<JournalRecord>> mutation) {
+        long seq;
+        boolean nested = mutationLock.isHeldByCurrentThread();
+        mutationLock.lock();
+        try {
+            List<JournalRecord> records = mutation.get();
+            if (writer == null) {
+                save();
+                return;
+            }
+            List<byte[]> frames = records.stream()
+                    .map(TaskJournal::frame)
+                    .toList();
+            seq = writer.submit(frames);
+            recordsSinceCheckpoint += records.size();
+            bytesSinceCheckpoint += frames.stream().mapToLong(f -> f.length).sum();
+            if (recordsSinceCheckpoint >= config.getCheckpointThreshold()
+                    || bytesSinceCheckpoint >= config.getCheckpointJournalBytes())
+                checkpointInBackground();
+        } finally {
+            mutationLock.unlock();
+        }
+        if (!nested && config.getDurabilityPolicy().getKind() == DurabilityPolicy.Kind.PER_WRITE)
+            writer.awaitDurable(seq);
     }
 
+    private void runBackgroundCheckpoint(CompletableFuture<Void> done) {
+        Path retired = retiredJournalPath(backupFilePath);
+        checkpointLock.lock();
+        Histogram.Timer timer = backgroundCheckpointDuration.time();
+        try {
+            mutationLock.lock();
+            try {
+                recordsSinceCheckpoint = 0;
+                bytesSinceCheckpoint = 0;
+            } finally {
+                mutationLock.unlock();
+            }
+            // Если прошлая фоновая точка не завершилась, журнал уже отложен, и записи после него остаются в текущем
+            if (!Files.exists(retired))
+                journal.rotate(retired);
+            scheduledCheckpoint.compareAndSet(done, null);
+            save();
+            try (FileChannel snapshot = FileChannel.open(backupFilePath, StandardOpenOption.WRITE)) {
+                snapshot.force(true);
+            }
+            long seq;
+            mutationLock.lock();
+            try {
+                seq = writer.submit(List.of());
+            } finally {
+                mutationLock.unlock();
+            }
+            writer.awaitDurable(seq);
+            Files.deleteIfExists(retired);
+            done.complete(null);
+        } catch (IOException | RuntimeException e) {
+            log.error("Background checkpoint of {} failed", backupFilePath, e);
+            scheduledCheckpoint.compareAndSet(done, null);
+            done.completeExceptionally(e);
+        } finally {
+            timer.close();
+            checkpointLock.unlock();
+        }
+    }
+
+    /** Поток фоновых контрольных точек. По периоду из настроек точка делается, только если журнал не пуст. */
+    private ScheduledExecutorService createCheckpointer() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-checkpoint-" + backupFilePath.getFileName());
+            t.setDaemon(true);
+            return t;
+        });
+        Duration interval = config.getCheckpointInterval();
+        if (interval != null)
+            executor.scheduleWithFixedDelay(() -> {
+                if (recordsSinceCheckpoint > 0)
+                    checkpointInBackground();
+            }, interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+        return executor;
+    }
+
+    private Stream<Task> affectedEpics(List<SubTask> changed) {
+        return changed.stream()
+                .map(SubTask::getEpicId)
+                .distinct()
+                .map(epics::get);
+    }
+
+    /** Выгружает текущее состояние в CSV независимо от формата снимка */
+    public void exportCsv(Path csvPath) {
+        mutationLock.lock();
+        try {
+            writeCsv(csvPath);
+        } finally {
+            mutationLock.unlock();
+        }
+    }
+
+    /** Снимок пишется во временный файл и атомарно подменяет старый, поэтому файл резервной копии есть всегда */
     private void save() {
+        Histogram.Timer timer = saveDuration.time();
+        try {
+            writeSnapshot();
+        } finally {
+            timer.close();
+        }
+    }
+
+    private void writeSnapshot() {
+        Path tmpFilePath = backupFilePath.resolveSibling(backupFilePath.getFileName() + ".tmp");
+        if (config.getSnapshotFormat() == SnapshotFormat.BINARY)
+            BinarySnapshot.write(tmpFilePath, Stream.of(tasks.values(), epics.values(), subTasks.values())
+                    .flatMap(Collection::stream)
+                    .toList());
+        else
+            writeCsv(tmpFilePath);
+        try {
+            Files.move(tmpFilePath, backupFilePath, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException();
+        }
+    }
+
+    private void writeCsv(Path csvPath) {
         List<String[]> records = new ArrayList<>();
         tasks.forEach((id, task) -> records.add(toCsvRecord(task)));
         epics.forEach((id, epic) -> records.add(toCsvRecord(epic)));
         subTasks.forEach((id, subTask) -> records.add(toCsvRecord(subTask)));
         ICSVWriter writer = null;
         try {
-            Files.deleteIfExists(backupFilePath);
-            writer = new CSVWriterBuilder(new FileWriter(backupFilePath.toFile(), StandardCharsets.UTF_8))
+            writer = new CSVWriterBuilder(new FileWriter(csvPath.toFile(), StandardCharsets.UTF_8))
                     .withQuoteChar(CSVWriter.NO_QUOTE_CHARACTER)
                     .build();
             writer.writeNext(CSV_BACKUP_HEADER);
             writer.writeAll(records);
+            writer.close();
+            writer = null;
         } catch (IOException e) {
             throw new ManagerSaveException();
         } finally {
@@ -134,63 +486,126 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     private void restoreFromBackup(Path backupPath) {
-        if (Files.exists(backupPath)) {
-            if (!Files.isRegularFile(backupPath) || !Files.isReadable(backupPath))
-                throw new ManagerLoadException("Backup file " + backupPath + " either is not a file or cannot be read");
-            try {
-                int maxId = 0;
-                CSVParser parser = new CSVParserBuilder()
-                        .withQuoteChar(CSVWriter.NO_QUOTE_CHARACTER)
-                        .build();
-                CSVReader reader = new CSVReaderBuilder(new FileReader(backupPath.toFile(), StandardCharsets.UTF_8))
-                        .withCSVParser(parser)
-                        .withSkipLines(1)
-                        .build();
-                CSVIterator iterator = new CSVIterator(reader);
-                while (iterator.hasNext()) {
-                    String[] line = iterator.next();
-                    int id = Integer.parseInt(line[0]);
-                    if (id > maxId)
-                        maxId = id;
-                    String className = line[1];
-                    TaskStatus status = TaskStatus.valueOf(line[3]);
-                    if (className.equals("Epic")) {
-                        Epic e = new Epic(id, line[2]);
-                        e.setStatus(status);
-                        e.setDescription(line[4]);
-                        epics.put(id, e);
-                    } else if (className.equals("SubTask")) {
-                        SubTask st = new SubTask(id, line[2]);
-                        st.setStatus(status);
-                        st.setDescription(line[4]);
-                        st.setEpicId(Integer.parseInt(line[5]));
-                        st.setStartDateTime(LocalDateTime.parse(line[6], ISO_LOCAL.getDtf()));
-                        st.setDuration(Duration.ofMinutes(Long.parseLong(line[7])));
-                        subTasks.put(id, st);
-                    } else {
-                        Task t = new Task(id, line[2]);
-                        t.setStatus(status);
-                        t.setDescription(line[4]);
-                        t.setStartDateTime(LocalDateTime.parse(line[6], ISO_LOCAL.getDtf()));
-                        t.setDuration(Duration.ofMinutes(Long.parseLong(line[7])));
-                        tasks.put(id, t);
-                    }
+        if (Files.exists(backupPath))
+            loadSnapshot(backupPath);
+        if (journal != null) {
+            // Счётчики порога контрольной точки учитывают всё, что придётся воспроизводить при следующем запуске
+            long records = 0, bytes = 0;
+            Path retired = retiredJournalPath(backupPath);
+            if (Files.exists(retired)) {
+                try (TaskJournal retiredJournal = new TaskJournal(retired)) {
+                    records += retiredJournal.replay(this::applyRecord);
+                    bytes += retiredJournal.size();
+                } catch (IOException e) {
+                    throw new ManagerLoadException("Cannot close journal " + retired);
                 }
-                subTasks.values().forEach(st -> {
-                    Epic parentEpic = epics.get(st.getEpicId());
-                    parentEpic.getSubTaskIds().add(st.getId());
+            }
+            records += journal.replay(this::applyRecord);
+            bytes += journal.size();
+            recordsSinceCheckpoint = records;
+            bytesSinceCheckpoint = bytes;
+        }
+        Stream.of(tasks.values(), epics.values(), subTasks.values())
+                .flatMap(Collection::stream)
+                .forEach(this::shareStrings);
+        subTasks.values().stream()
+                .collect(Collectors.groupingBy(SubTask::getEpicId))
+                .forEach((epicId, children) -> {
+                    Epic parentEpic = epics.get(epicId);
+                    if (parentEpic != null)
+                        parentEpic.bindSubTasks(children);
                 });
-                idSeq = new AtomicInteger(maxId);
-            } catch (FileNotFoundException e) {
-                throw new ManagerLoadException("File not found: " + backupPath);
-            } catch (IOException e) {
-                throw new ManagerLoadException("IOException for " + backupPath);
-            } catch (CsvValidationException e) {
-                throw new ManagerLoadException("CsvValidationException for " + backupPath);
+        tasks.values().forEach(scheduleIndex::add);
+        subTasks.values().forEach(scheduleIndex::add);
+        tasks.values().forEach(prioritizedTasks::add);
+        subTasks.values().forEach(prioritizedTasks::add);
+        rebuildEpicRollups();
+        rebuildSecondaryIndexes();
+        Stream.of(tasks.keySet(), epics.keySet(), subTasks.keySet())
+                .flatMap(ids -> ids.stream())
+                .max(Integer::compare)
+                .ifPresent(maxId -> idSeq = new AtomicInteger(maxId + 1));
+    }
+
+    private void applyRecord(JournalRecord record) {
+        if (record.getOperation() == JournalRecord.Operation.UPSERT) {
+            if (record.getTask() instanceof Epic epic)
+                epics.put(record.getId(), epic);
+            else if (record.getTask() instanceof SubTask subTask)
+                subTasks.put(record.getId(), subTask);
+            else
+                tasks.put(record.getId(), record.getTask());
+        } else {
+            switch (record.getType()) {
+                case TASK -> tasks.remove(record.getId());
+                case EPIC -> epics.remove(record.getId());
+                case SUBTASK -> subTasks.remove(record.getId());
             }
         }
     }
 
+    /** Формат снимка определяется по заголовку, поэтому CSV-файл можно импортировать в любом режиме */
+    private void loadSnapshot(Path backupPath) {
+        if (!Files.isRegularFile(backupPath) || !Files.isReadable(backupPath))
+            throw new ManagerLoadException("Backup file " + backupPath + " either is not a file or cannot be read");
+        if (BinarySnapshot.isBinary(backupPath))
+            BinarySnapshot.read(backupPath, task -> applyRecord(upsert(task)));
+        else
+            loadCsv(backupPath);
+    }
+
+    private void loadCsv(Path backupPath) {
+        try {
+            CSVParser parser = new CSVParserBuilder()
+                    .withQuoteChar(CSVWriter.NO_QUOTE_CHARACTER)
+                    .build();
+            CSVReader reader = new CSVReaderBuilder(new FileReader(backupPath.toFile(), StandardCharsets.UTF_8))
+                    .withCSVParser(parser)
+                    .withSkipLines(1)
+                    .build();
+            CSVIterator iterator = new CSVIterator(reader);
+            while (iterator.hasNext()) {
+                String[] line = iterator.next();
+                int id = Integer.parseInt(line[0]);
+                String className = line[1];
+                TaskStatus status = TaskStatus.valueOf(line[3]);
+                // В выгрузках без столбца версии задачам достаётся версия 1, как при добавлении
+                long version = line.length > 8 ? Long.parseLong(line[8]) : 1;
+                if (className.equals("Epic")) {
+                    Epic e = new Epic(id, line[2]);
+                    e.setStatus(status);
+                    e.setDescription(line[4]);
+                    e.setVersion(version);
+                    epics.put(id, e);
+                } else if (className.equals("SubTask")) {
+                    SubTask st = new SubTask(id, line[2]);
+                    st.setStatus(status);
+                    st.setDescription(line[4]);
+                    st.setEpicId(Integer.parseInt(line[5]));
+                    st.setStartDateTime(LocalDateTime.parse(line[6], ISO_LOCAL.getDtf()));
+                    st.setDuration(Duration.ofMinutes(Long.parseLong(line[7])));
+                    st.setVersion(version);
+                    subTasks.put(id, st);
+                } else {
+                    Task t = new Task(id, line[2]);
+                    t.setStatus(status);
+                    t.setDescription(line[4]);
+                    t.setStartDateTime(LocalDateTime.parse(line[6], ISO_LOCAL.getDtf()));
+                    t.setDuration(Duration.ofMinutes(Long.parseLong(line[7])));
+                    t.setVersion(version);
+                    tasks.put(id, t);
+                }
+            }
+            reader.close();
+        } catch (FileNotFoundException e) {
+            throw new ManagerLoadException("File not found: " + backupPath);
+        } catch (IOException e) {
+            throw new ManagerLoadException("IOException for " + backupPath);
+        } catch (CsvValidationException e) {
+            throw new ManagerLoadException("CsvValidationException for " + backupPath);
+        }
+    }
+
     public String[] toCsvRecord(Task task) {
         if (task instanceof SubTask st)
             return new String[] {
@@ -201,7 +616,8 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                     task.getDescription(),
                     String.valueOf(st.getEpicId()),
                     task.getStartDateTime().format(ISO_LOCAL.getDtf()),
-                    String.valueOf(task.getDuration().toMinutes())
+                    String.valueOf(task.getDuration().toMinutes()),
+                    String.valueOf(task.getVersion())
             };
         else
             return new String[] {
@@ -212,7 +628,8 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                     task.getDescription(),
                     null,
                     task instanceof Epic ? null : task.getStartDateTime().format(ISO_LOCAL.getDtf()),
-                    task instanceof Epic ? null : String.valueOf(task.getDuration().toMinutes())
+                    task instanceof Epic ? null : String.valueOf(task.getDuration().toMinutes()),
+                    String.valueOf(task.getVersion())
             };
     }
 }
@@ -0,0 +1,197 @@
+package ru.yandex.practicum.java.devext.kanban.task.management.filebacked;
+
+import lombok.extern.slf4j.Slf4j;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Групповая запись в журнал. Потоки, меняющие данные, только ставят готовые записи в очередь,
+ * а отдельный поток пишет накопившееся одним вызовом и делает fsync согласно {@link DurabilityPolicy}.
+ * Записи нумеруются по порядку постановки в очередь, по номеру можно дождаться их сохранения на диск.
+ */
+@Slf4j
+public class GroupCommitWriter implements Closeable {
+
+    private final TaskJournal journal;
+    private final DurabilityPolicy policy;
+    private final Thread writerThread;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasWork = lock.newCondition();
+    private final TreeMap<Long, CompletableFuture<Void>> waiters = new TreeMap<>();
+    private List<byte[]> pending = new ArrayList<>();
+    private long submittedSeq, writtenSeq, durableSeq;
+    private long lastSyncNanos = System.nanoTime();
+    private boolean syncRequested, closed;
+    private RuntimeException failure;
+
+    public GroupCommitWriter(TaskJournal journal, DurabilityPolicy policy) {
+        this.journal = journal;
+        this.policy = policy;
+        writerThread = new Thread(this::run, "journal-writer-" + journal.getPath().getFileName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /** Ставит записи в очередь и возвращает номер последней из них */
+    public long submit(List<byte[]> frames) {
+        lock.lock();
+        try {
+            if (failure != null || closed)
+                throw new ManagerSaveException();
+            if (!frames.isEmpty()) {
+                pending.addAll(frames);
+                submittedSeq += frames.size();
+                hasWork.signal();
+            }
+            return submittedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Завершается, когда запись с указанным номером и все предыдущие сохранены на диск */
+    public CompletableFuture<Void> whenDurable(long seq) {
+        lock.lock();
+        try {
+            if (seq <= durableSeq)
+                return CompletableFuture.completedFuture(null);
+            if (failure != null)
+                return CompletableFuture.failedFuture(failure);
+            syncRequested = true;
+            hasWork.signal();
+            return waiters.computeIfAbsent(seq, s -> new CompletableFuture<>());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Завершается, когда на диске окажутся все записи, поставленные в очередь к этому моменту */
+    public CompletableFuture<Void> whenDurable() {
+        lock.lock();
+        try {
+            return whenDurable(submittedSeq);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Блокирует поток до сохранения записи с указанным номером */
+    public void awaitDurable(long seq) {
+        try {
+            whenDurable(seq).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new ManagerSaveException();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            hasWork.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            List<byte[]> batch;
+            long batchSeq;
+            lock.lock();
+            try {
+                while (!closed && pending.isEmpty() && !syncDue())
+                    waitForWork();
+                if (pending.isEmpty() && writtenSeq == durableSeq && (closed || failure != null))
+                    return;
+                batch = pending;
+                batchSeq = submittedSeq;
+                pending = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                if (!batch.isEmpty())
+                    journal.write(batch);
+                boolean sync;
+                lock.lock();
+                try {
+                    writtenSeq = batchSeq;
+                    sync = closed || syncDue();
+                } finally {
+                    lock.unlock();
+                }
+                if (sync) {
+                    journal.sync();
+                    markDurable(batchSeq);
+                }
+            } catch (RuntimeException e) {
+                log.error("Journal {} write failed", journal.getPath(), e);
+                fail(e);
+                return;
+            }
+        }
+    }
+
+    private boolean syncDue() {
+        long unsynced = writtenSeq - durableSeq;
+        if (unsynced == 0 || failure != null)
+            return false;
+        return switch (policy.getKind()) {
+            case PER_WRITE -> true;
+            case BATCH -> syncRequested || unsynced >= policy.getValue();
+            case INTERVAL -> syncRequested || System.nanoTime() - lastSyncNanos >= policy.intervalNanos();
+        };
+    }
+
+    private void waitForWork() {
+        try {
+            if (policy.getKind() == DurabilityPolicy.Kind.INTERVAL && writtenSeq > durableSeq)
+                hasWork.awaitNanos(policy.intervalNanos() - (System.nanoTime() - lastSyncNanos));
+            else
+                hasWork.await();
+        } catch (InterruptedException e) {
+            closed = true;
+        }
+    }
+
+    private void markDurable(long seq) {
+        lock.lock();
+        try {
+            durableSeq = seq;
+            lastSyncNanos = System.nanoTime();
+            syncRequested = !waiters.isEmpty() && waiters.lastKey() > seq;
+            Map<Long, CompletableFuture<Void>> done = waiters.headMap(seq, true);
+            done.values().forEach(f -> f.complete(null));
+            done.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fail(RuntimeException e) {
+        lock.lock();
+        try {
+            failure = e;
+            waiters.values().forEach(f -> f.completeExceptionally(e));
+            waiters.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
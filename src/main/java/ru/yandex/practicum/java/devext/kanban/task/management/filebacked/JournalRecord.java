@@ -0,0 +1,153 @@
+package ru.yandex.practicum.java.devext.kanban.task.management.filebacked;
+
+import lombok.Getter;
+import ru.yandex.practicum.java.devext.kanban.task.Epic;
+import ru.yandex.practicum.java.devext.kanban.task.SubTask;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.TaskStatus;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+
+/**
+ * Запись журнала изменений. Хранит итоговое состояние задачи (UPSERT) либо факт её удаления (DELETE),
+ * поэтому повторное применение записи не меняет результат.
+ */
+@Getter
+public class JournalRecord {
+
+    public enum Operation {
+        UPSERT, DELETE
+    }
+
+    public enum EntityType {
+        TASK, EPIC, SUBTASK;
+
+        public static EntityType of(Task task) {
+            if (task instanceof Epic)
+                return EPIC;
+            else if (task instanceof SubTask)
+                return SUBTASK;
+            else
+                return TASK;
+        }
+    }
+
+    private final Operation operation;
+    private final EntityType type;
+    private final int id;
+    private final Task task;
+
+    private JournalRecord(Operation operation, EntityType type, int id, Task task) {
+        this.operation = operation;
+        this.type = type;
+        this.id = id;
+        this.task = task;
+    }
+
+    public static JournalRecord upsert(Task task) {
+        return new JournalRecord(Operation.UPSERT, EntityType.of(task), task.getId(), task);
+    }
+
+    public static JournalRecord delete(Task task) {
+        return new JournalRecord(Operation.DELETE, EntityType.of(task), task.getId(), null);
+    }
+
+    public byte[] toBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(operation.ordinal());
+            out.writeByte(type.ordinal());
+            out.writeInt(id);
+            if (operation == Operation.UPSERT) {
+                writeString(out, task.getName());
+                writeString(out, task.getDescription());
+                out.writeByte(task.getStatus().ordinal());
+                out.writeInt(task instanceof SubTask st ? st.getEpicId() : -1);
+                if (task instanceof Epic) {
+                    out.writeBoolean(false);
+                    out.writeBoolean(false);
+                } else {
+                    writeDateTime(out, task.getStartDateTime());
+                    writeDuration(out, task.getDuration());
+                }
+                out.writeLong(task.getVersion());
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new ManagerSaveException();
+        }
+    }
+
+    public static JournalRecord fromBytes(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        Operation operation = Operation.values()[in.readByte()];
+        EntityType type = EntityType.values()[in.readByte()];
+        int id = in.readInt();
+        if (operation == Operation.DELETE)
+            return new JournalRecord(operation, type, id, null);
+        String name = readString(in);
+        Task task = switch (type) {
+            case EPIC -> new Epic(id, name);
+            case SUBTASK -> new SubTask(id, name);
+            case TASK -> new Task(id, name);
+        };
+        task.setDescription(readString(in));
+        task.setStatus(TaskStatus.values()[in.readByte()]);
+        int epicId = in.readInt();
+        if (task instanceof SubTask st)
+            st.setEpicId(epicId);
+        task.setStartDateTime(readDateTime(in));
+        task.setDuration(readDuration(in));
+        // Записи, сделанные до появления версий, заканчиваются длительностью: такой задаче достаётся версия 1
+        task.setVersion(in.available() >= Long.BYTES ? in.readLong() : 1);
+        return new JournalRecord(operation, type, id, task);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null)
+            out.writeInt(-1);
+        else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime dt) throws IOException {
+        out.writeBoolean(dt != null);
+        if (dt != null) {
+            out.writeLong(dt.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dt.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+
+    private static void writeDuration(DataOutputStream out, Duration d) throws IOException {
+        out.writeBoolean(d != null);
+        if (d != null) {
+            out.writeLong(d.getSeconds());
+            out.writeInt(d.getNano());
+        }
+    }
+
+    private static Duration readDuration(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Duration.ofSeconds(in.readLong(), in.readInt()) : null;
+    }
+}
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.java.devext.kanban.task.management.filebacked;
+
+/** Способ сохранения изменений менеджера задач в файл */
+public enum PersistenceMode {
+    /** Файл резервной копии перезаписывается целиком после каждого изменения */
+    SNAPSHOT,
+    /** Каждое изменение дописывается в журнал, снимок перезаписывается только при контрольной точке */
+    JOURNAL
+}
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.java.devext.kanban.task.management.filebacked;
+
+/** Формат файла снимка состояния менеджера задач */
+public enum SnapshotFormat {
+    /** Текстовый CSV. Медленно читается, но удобен для импорта и экспорта. */
+    CSV,
+    /** Двоичный формат {@link BinarySnapshot}, читается через отображение файла в память */
+    BINARY
+}
@@ -0,0 +1,160 @@
+package ru.yandex.practicum.java.devext.kanban.task.management.filebacked;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.*;
+
+
+/**
+ * Журнал изменений, в который только дописывают. Каждая запись — это длина, CRC32 и тело {@link JournalRecord}.
+ * Повреждённый или недописанный хвост при чтении отбрасывается.
+ */
+@Slf4j
+public class TaskJournal implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    @Getter
+    private final Path path;
+    private FileChannel channel;
+    /** Количество записей с момента последнего усечения */
+    @Getter
+    private long records;
+
+    public TaskJournal(Path path) {
+        this.path = path;
+        try {
+            channel = FileChannel.open(path, CREATE, READ, WRITE);
+        } catch (IOException e) {
+            throw new ManagerLoadException("Cannot open journal " + path);
+        }
+    }
+
+    /** Применяет все целые записи журнала и готовит его к дописыванию. Возвращает количество записей. */
+    public synchronized long replay(Consumer<JournalRecord> consumer) {
+        try {
+            long position = 0, size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            records = 0;
+            while (position + HEADER_BYTES <= size) {
+                header.clear();
+                channel.read(header, position);
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length <= 0 || position + HEADER_BYTES + length > size)
+                    break;
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                channel.read(payload, position + HEADER_BYTES);
+                if (checksum(payload.array()) != checksum)
+                    break;
+                consumer.accept(JournalRecord.fromBytes(payload.array()));
+                position += HEADER_BYTES + length;
+                records++;
+            }
+            if (position < size) {
+                log.warn("Journal {} has a broken tail of {} bytes, it is discarded", path, size - position);
+                channel.truncate(position);
+            }
+            channel.position(position);
+            return records;
+        } catch (IOException | RuntimeException e) {
+            throw new ManagerLoadException("Cannot replay journal " + path);
+        }
+    }
+
+    /** Размер журнала в байтах; после {@link #replay(Consumer)} — только целые записи */
+    public synchronized long size() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new ManagerLoadException("Cannot read size of journal " + path);
+        }
+    }
+
+    /** Кодирует запись вместе с заголовком. Вызывается на потоке, который меняет данные. */
+    public static byte[] frame(JournalRecord record) {
+        byte[] payload = record.toBytes();
+        return ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt(checksum(payload))
+                .put(payload)
+                .array();
+    }
+
+    public synchronized void append(JournalRecord record) {
+        write(List.of(frame(record)));
+    }
+
+    /** Дописывает готовые записи одним вызовом записи в файл, без fsync */
+    public synchronized void write(List<byte[]> frames) {
+        ByteBuffer[] buffers = frames.stream()
+                .map(ByteBuffer::wrap)
+                .toArray(ByteBuffer[]::new);
+        try {
+            long remaining = frames.stream().mapToLong(f -> f.length).sum();
+            while (remaining > 0)
+                remaining -= channel.write(buffers);
+            records += frames.size();
+        } catch (IOException e) {
+            throw new ManagerSaveException();
+        }
+    }
+
+    /** Сбрасывает записанное на диск */
+    public synchronized void sync() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new ManagerSaveException();
+        }
+    }
+
+    /** Очищает журнал после записи контрольной точки */
+    public synchronized void truncate() {
+        try {
+            channel.truncate(0);
+            channel.position(0);
+            records = 0;
+        } catch (IOException e) {
+            throw new ManagerSaveException();
+        }
+    }
+
+    /**
+     * Закрывает текущий файл журнала, сохранив его на диск, переименовывает его в {@code retiredPath}
+     * и продолжает запись в новый пустой файл по прежнему пути
+     */
+    public synchronized void rotate(Path retiredPath) {
+        try {
+            channel.force(false);
+            channel.close();
+            Files.move(path, retiredPath, ATOMIC_MOVE);
+            channel = FileChannel.open(path, CREATE, READ, WRITE);
+            records = 0;
+        } catch (IOException e) {
+            throw new ManagerSaveException();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.java.devext.kanban.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.BackupConfig;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.DurabilityPolicy;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.FileBackedTaskManager;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.PersistenceMode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/** Пропускная способность записи в журнал при разных политиках сохранения на диск */
+@Slf4j
+@Tag("benchmark")
+public class GroupCommitBenchmark {
+
+    private static final Path tmpBackupPath = Paths.get("src", "test", "resources", "tmp_benchmark_backup.csv");
+    private static final int THREADS = 8, OPS = 20_000;
+
+    @AfterEach
+    void afterEach() throws IOException {
+        Files.deleteIfExists(tmpBackupPath);
+        Files.deleteIfExists(FileBackedTaskManager.journalPath(tmpBackupPath));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Добавление задач из нескольких потоков")
+    @ValueSource(strings = {"per-write", "interval:1", "interval:10", "batch:64", "batch:1024"})
+    void concurrentAddTask(String policy) throws Exception {
+        BackupConfig config = BackupConfig.builder()
+                .mode(PersistenceMode.JOURNAL)
+                .durabilityPolicy(DurabilityPolicy.parse(policy))
+                .checkpointThreshold(Integer.MAX_VALUE)
+                .checkpointJournalBytes(Long.MAX_VALUE)
+                .build();
+        try (FileBackedTaskManager tm = new FileBackedTaskManager(tmpBackupPath, config)) {
+            LocalDateTime start = LocalDateTime.now();
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < OPS; i++) {
+                Task t = new Task(tm.getNextId(), "Benchmark task " + i);
+                t.setStartDateTime(start.plusHours(t.getId()));
+                t.setDuration(Duration.ofMinutes(30));
+                executor.submit(() -> tm.addTask(t));
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+            tm.whenDurable().get(1, TimeUnit.MINUTES);
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            log.info("{}: {} writes in {} s, {} writes/s", policy, OPS, String.format("%.2f", seconds),
+                    Math.round(OPS / seconds));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.java.devext.kanban.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.yandex.practicum.java.devext.kanban.history.ConcurrentHistoryManager;
+import ru.yandex.practicum.java.devext.kanban.history.HistoryManager;
+import ru.yandex.practicum.java.devext.kanban.history.InMemoryHistoryManager;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Пропускная способность истории просмотров: 90% просмотров, 10% чтений истории.
+ * {@link InMemoryHistoryManager} не потокобезопасен, поэтому для сравнения он обёрнут в общую блокировку.
+ */
+@Slf4j
+@Tag("benchmark")
+public class HistoryBenchmark {
+
+    private static final int TASKS = 1_000, OPS_PER_THREAD = 200_000;
+
+    @ParameterizedTest
+    @DisplayName("Просмотры и чтение истории из нескольких потоков")
+    @ValueSource(ints = {1, 2, 4, 8})
+    void addAndGetHistory(int threads) throws Exception {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++)
+            tasks.add(new Task(i, "Benchmark task " + i));
+        long lockedOps = run(new SynchronizedHistoryManager(new InMemoryHistoryManager()), tasks, threads),
+                concurrentOps = run(new ConcurrentHistoryManager(), tasks, threads);
+        log.info("{} thread(s): synchronized InMemoryHistoryManager {} ops/s, ConcurrentHistoryManager {} ops/s",
+                threads, lockedOps, concurrentOps);
+    }
+
+    private static long run(HistoryManager historyManager, List<Task> tasks, int threads) throws Exception {
+        tasks.forEach(historyManager::add);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < OPS_PER_THREAD; j++) {
+                    if (random.nextInt(10) == 0)
+                        historyManager.getHistory();
+                    else
+                        historyManager.add(tasks.get(random.nextInt(tasks.size())));
+                }
+                return null;
+            });
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+        return Math.round((double) threads * OPS_PER_THREAD / ((System.nanoTime() - startNanos) / 1e9));
+    }
+
+    private static class SynchronizedHistoryManager implements HistoryManager {
+        private final HistoryManager delegate;
+
+        SynchronizedHistoryManager(HistoryManager delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void add(Task element) {
+            delegate.add(element);
+        }
+
+        @Override
+        public synchronized List<Task> getHistory() {
+            return delegate.getHistory();
+        }
+
+        @Override
+        public synchronized void remove(Task element) {
+            delegate.remove(element);
+        }
+
+        @Override
+        public synchronized int getSize() {
+            return delegate.getSize();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.java.devext.kanban.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.yandex.practicum.java.devext.kanban.HttpTaskServer;
+import ru.yandex.practicum.java.devext.kanban.ServerConfig;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.management.Managers;
+import ru.yandex.practicum.java.devext.kanban.task.management.TaskManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/** Пропускная способность и p99 задержки {@link HttpTaskServer} при разных режимах обработки запросов */
+@Slf4j
+@Tag("benchmark")
+public class HttpServerBenchmark {
+
+    private static final int CLIENTS = 32, REQUESTS_PER_CLIENT = 500, TASKS = 500;
+
+    @ParameterizedTest
+    @DisplayName("Одновременные клиенты")
+    @ValueSource(strings = {"single", "pool:8", "pool:32", "virtual"})
+    void concurrentClients(String executor) throws Exception {
+        TaskManager taskManager = Managers.getDefault();
+        LocalDateTime start = LocalDateTime.now();
+        for (int i = 0; i < TASKS; i++) {
+            Task t = new Task(taskManager.getNextId(), "Benchmark task " + i);
+            t.setStartDateTime(start.plusHours(i));
+            t.setDuration(Duration.ofMinutes(30));
+            taskManager.addTask(t);
+        }
+        ServerConfig config = ServerConfig.fromArgs(new String[] {"--port=0", "--backlog=256", "--executor=" + executor});
+        HttpTaskServer.configureProcess(config);
+        HttpTaskServer server = new HttpTaskServer(taskManager, config);
+        server.start();
+        String baseUrl = "http://localhost:" + server.getPort();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(CLIENTS))
+                .build();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            results.add(clients.submit(() -> {
+                long[] latencies = new long[REQUESTS_PER_CLIENT];
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                go.await();
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    String path = random.nextInt(10) == 0 ? "/tasks" : "/tasks/" + random.nextInt(TASKS);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+                    long startNanos = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    latencies[i] = System.nanoTime() - startNanos;
+                    assertEquals(200, response.statusCode());
+                }
+                return latencies;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        go.countDown();
+        long[] all = new long[CLIENTS * REQUESTS_PER_CLIENT];
+        for (int c = 0; c < CLIENTS; c++)
+            System.arraycopy(results.get(c).get(), 0, all, c * REQUESTS_PER_CLIENT, REQUESTS_PER_CLIENT);
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        clients.shutdown();
+        server.stop();
+        Arrays.sort(all);
+        log.info("{}: {} req/s, p50 {} ms, p99 {} ms", executor, Math.round(all.length / seconds),
+                String.format("%.2f", all[all.length / 2] / 1e6),
+                String.format("%.2f", all[(int) (all.length * 0.99)] / 1e6));
+    }
+}
@@ -0,0 +1,126 @@
+package ru.yandex.practicum.java.devext.kanban.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.java.devext.kanban.task.Epic;
+import ru.yandex.practicum.java.devext.kanban.task.IntSet;
+import ru.yandex.practicum.java.devext.kanban.task.SubTask;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.management.Managers;
+import ru.yandex.practicum.java.devext.kanban.task.management.TaskManager;
+import java.lang.ref.Reference;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Память на задачу при заполнении менеджера. Число подзадач задаётся свойством {@code memory.tasks}
+ * (по умолчанию 1 000 000), для него нужна куча от 2 ГБ: {@code -DargLine=-Xmx2g}.
+ */
+@Slf4j
+@Tag("benchmark")
+public class MemoryFootprintBenchmark {
+
+    private static final int TASKS = Integer.getInteger("memory.tasks", 1_000_000), SUBTASKS_PER_EPIC = 10;
+
+    @Test
+    @DisplayName("ID подзадач эпиков: HashSet и IntSet")
+    void subTaskIdSets() {
+        int epics = TASKS / SUBTASKS_PER_EPIC;
+        double boxed = bytesPerElement(() -> fillSets(epics, HashSet::new), TASKS);
+        double primitive = bytesPerElement(() -> fillSets(epics, IntSet::new), TASKS);
+        log.info("{} ids in {} sets: HashSet<Integer> {} B/id, IntSet {} B/id", TASKS, epics,
+                String.format("%.1f", boxed), String.format("%.1f", primitive));
+    }
+
+    @Test
+    @DisplayName("Менеджер задач")
+    void taskManager() {
+        double perTask = bytesPerElement(() -> {
+            TaskManager tm = Managers.getDefault();
+            for (int e = 0; e < TASKS / SUBTASKS_PER_EPIC; e++) {
+                Epic epic = new Epic(tm.getNextId(), "Epic " + e);
+                tm.addEpic(epic);
+                for (int s = 0; s < SUBTASKS_PER_EPIC; s++)
+                    tm.addSubTask(new SubTask(tm.getNextId(), "Subtask " + s), epic);
+            }
+            assertEquals(TASKS, tm.getSubTasks().size());
+            return tm;
+        }, TASKS);
+        log.info("{} subtasks: {} B/subtask including epics and indexes", TASKS, String.format("%.1f", perTask));
+    }
+
+    /** Задачи и подзадачи со сроками попадают во все индексы, имена и описания повторяются */
+    @Test
+    @DisplayName("Менеджер задач со сроками")
+    void scheduledTaskManager() {
+        double perTask = bytesPerElement(() -> {
+            TaskManager tm = Managers.getDefault();
+            LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+            for (int e = 0; e < TASKS / 2 / SUBTASKS_PER_EPIC; e++) {
+                Epic epic = new Epic(tm.getNextId(), "Epic " + e % 100);
+                tm.addEpic(epic);
+                for (int s = 0; s < SUBTASKS_PER_EPIC; s++) {
+                    SubTask st = new SubTask(tm.getNextId(), "Subtask " + s);
+                    st.setDescription("Description " + s);
+                    st.setStartDateTime(start.plusMinutes(st.getId() * 10L));
+                    st.setDuration(Duration.ofMinutes(5));
+                    tm.addSubTask(st, epic);
+                }
+            }
+            for (int i = 0; i < TASKS / 2; i++) {
+                Task t = new Task(tm.getNextId(), "Task " + i % 100);
+                t.setDescription("Description " + i % 10);
+                t.setStartDateTime(start.plusMinutes(t.getId() * 10L));
+                t.setDuration(Duration.ofMinutes(5));
+                tm.addTask(t);
+            }
+            assertEquals(TASKS / 2, tm.getTasks().size());
+            return tm;
+        }, TASKS);
+        log.info("{} scheduled tasks and subtasks: {} B/task including epics and indexes", TASKS,
+                String.format("%.1f", perTask));
+    }
+
+    private static List<Collection<Integer>> fillSets(int count, Supplier<Collection<Integer>> factory) {
+        List<Collection<Integer>> sets = new ArrayList<>(count);
+        int id = 0;
+        for (int i = 0; i < count; i++) {
+            Collection<Integer> set = factory.get();
+            for (int j = 0; j < SUBTASKS_PER_EPIC; j++)
+                set.add(id++);
+            sets.add(set);
+        }
+        return sets;
+    }
+
+    /** Прирост занятой кучи после сборки мусора, пока построенный объект достижим */
+    private static double bytesPerElement(Supplier<Object> build, int elements) {
+        long before = usedHeap();
+        Object retained = build.get();
+        long after = usedHeap();
+        Reference.reachabilityFence(retained);
+        return (double) (after - before) / elements;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
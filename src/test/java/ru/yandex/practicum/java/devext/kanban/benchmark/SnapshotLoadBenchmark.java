@@ -0,0 +1,74 @@
+package ru.yandex.practicum.java.devext.kanban.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.BackupConfig;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.DurabilityPolicy;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.FileBackedTaskManager;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.PersistenceMode;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.SnapshotFormat;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/** Время загрузки менеджера задач из CSV и из двоичного снимка */
+@Slf4j
+@Tag("benchmark")
+public class SnapshotLoadBenchmark {
+
+    private static final Path tmpBinPath = Paths.get("src", "test", "resources", "tmp_benchmark_backup.bin");
+    private static final Path tmpCsvPath = Paths.get("src", "test", "resources", "tmp_benchmark_backup.csv");
+
+    @AfterEach
+    void afterEach() throws IOException {
+        Files.deleteIfExists(tmpBinPath);
+        Files.deleteIfExists(FileBackedTaskManager.journalPath(tmpBinPath));
+        Files.deleteIfExists(tmpCsvPath);
+    }
+
+    @ParameterizedTest
+    @DisplayName("Загрузка снимка")
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void load(int size) throws IOException {
+        BackupConfig config = BackupConfig.builder()
+                .mode(PersistenceMode.JOURNAL)
+                .snapshotFormat(SnapshotFormat.BINARY)
+                .durabilityPolicy(DurabilityPolicy.everyOps(4096))
+                .checkpointThreshold(Integer.MAX_VALUE)
+                .checkpointJournalBytes(Long.MAX_VALUE)
+                .build();
+        try (FileBackedTaskManager tm = new FileBackedTaskManager(tmpBinPath, config)) {
+            LocalDateTime start = LocalDateTime.now();
+            for (int i = 0; i < size; i++) {
+                Task t = new Task(tm.getNextId(), "Benchmark task " + i % 100);
+                t.setDescription("Description " + i % 10);
+                t.setStartDateTime(start.plusMinutes(t.getId() * 10L));
+                t.setDuration(Duration.ofMinutes(5));
+                tm.addTask(t);
+            }
+            tm.checkpoint();
+            tm.exportCsv(tmpCsvPath);
+        }
+        long csvMillis = timeLoad(tmpCsvPath, size), binMillis = timeLoad(tmpBinPath, size);
+        log.info("{} tasks: csv {} ms ({} KiB), binary {} ms ({} KiB)", size,
+                csvMillis, Files.size(tmpCsvPath) / 1024, binMillis, Files.size(tmpBinPath) / 1024);
+    }
+
+    private static long timeLoad(Path path, int expectedSize) {
+        long startNanos = System.nanoTime();
+        FileBackedTaskManager tm = new FileBackedTaskManager(path);
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        assertEquals(expectedSize, tm.getTasks().size());
+        return millis;
+    }
+}
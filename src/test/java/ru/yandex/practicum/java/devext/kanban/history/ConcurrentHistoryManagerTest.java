@@ -0,0 +1,84 @@
+package ru.yandex.practicum.java.devext.kanban.history;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@DisplayName("Потокобезопасный менеджер истории")
+class ConcurrentHistoryManagerTest {
+
+    private static final int THREADS = 8, TASKS = 200, OPS_PER_THREAD = 20_000;
+    private ConcurrentHistoryManager historyManager;
+    private List<Task> tasks;
+
+    @BeforeEach
+    void beforeEach() {
+        historyManager = new ConcurrentHistoryManager();
+        tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++)
+            tasks.add(new Task(i, "Test task " + i));
+    }
+
+    @Test
+    @DisplayName("Повторный просмотр переносит задачу в конец")
+    void moveToEnd() {
+        tasks.subList(0, 3).forEach(historyManager::add);
+        historyManager.add(tasks.get(0));
+        historyManager.add(tasks.get(0));
+        historyManager.remove(tasks.get(1));
+        assertEquals(List.of(tasks.get(2), tasks.get(0)), historyManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Одновременные просмотры и удаления")
+    void concurrentAddAndRemove() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < OPS_PER_THREAD; j++) {
+                    Task t = tasks.get(random.nextInt(TASKS));
+                    if (random.nextInt(10) == 0)
+                        historyManager.remove(t);
+                    else
+                        historyManager.add(t);
+                }
+                return null;
+            }));
+        }
+        Future<?> reader = executor.submit(() -> {
+            start.await();
+            while (!writers.stream().allMatch(Future::isDone)) {
+                List<Task> snapshot = historyManager.getHistory();
+                assertEquals(snapshot.size(), new HashSet<>(snapshot).size(), "History contains duplicates");
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> w : writers)
+            w.get(30, TimeUnit.SECONDS);
+        reader.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        // Последний просмотр каждой задачи переносит её в конец: после этого история ровно из всех задач
+        tasks.forEach(historyManager::add);
+        assertAll(
+                () -> assertEquals(tasks, historyManager.getHistory()),
+                () -> assertEquals(TASKS, historyManager.getSize())
+        );
+    }
+}
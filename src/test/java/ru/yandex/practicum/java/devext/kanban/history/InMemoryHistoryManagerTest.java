@@ -36,7 +36,7 @@ class InMemoryHistoryManagerTest {
     @Test
     @DisplayName("Класс менеджера истории по умолчанию")
     void defaultClass() {
-        assertInstanceOf(InMemoryHistoryManager.class, historyManager);
+        assertInstanceOf(ConcurrentHistoryManager.class, historyManager);
     }
 
     @Test
@@ -0,0 +1,140 @@
+package ru.yandex.practicum.java.devext.kanban.load;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import ru.yandex.practicum.java.devext.kanban.HttpTaskServer;
+import ru.yandex.practicum.java.devext.kanban.ServerConfig;
+import ru.yandex.practicum.java.devext.kanban.rest.DurationAdapter;
+import ru.yandex.practicum.java.devext.kanban.rest.LocalDateTimeAdapter;
+import ru.yandex.practicum.java.devext.kanban.task.Epic;
+import ru.yandex.practicum.java.devext.kanban.task.SubTask;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.TaskStatus;
+import ru.yandex.practicum.java.devext.kanban.task.management.Managers;
+import ru.yandex.practicum.java.devext.kanban.task.management.TaskManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Смешанная нагрузка на {@link HttpTaskServer}, запущенный в том же процессе на свободном порту.
+ * Параметры прогона задаются системными свойствами (см. {@link LoadConfig#fromSystemProperties}), исполнитель
+ * сервера — свойством {@code load.executor}, например:
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups= -Dtest=HttpLoadBenchmark -Dload.rate=2000 -Dload.seconds=30}
+ */
+@Slf4j
+@Tag("benchmark")
+public class HttpLoadBenchmark {
+
+    private static final int TASKS = 500, EPICS = 20, SUBTASKS_PER_EPIC = 10;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .serializeNulls()
+            .create();
+
+    @ParameterizedTest
+    @DisplayName("Смешанная нагрузка")
+    @EnumSource(LoadConfig.Mode.class)
+    void mixedLoad(LoadConfig.Mode mode) throws Exception {
+        TaskManager taskManager = Managers.getDefault();
+        int firstTaskId = -1;
+        for (int i = 0; i < TASKS; i++) {
+            Task task = scheduledTask(taskManager.getNextId(), i);
+            taskManager.addTask(task);
+            if (i == 0)
+                firstTaskId = task.getId();
+        }
+        int firstEpicId = -1;
+        for (int e = 0; e < EPICS; e++) {
+            Epic epic = new Epic(taskManager.getNextId(), "Load epic " + e);
+            taskManager.addEpic(epic);
+            if (e == 0)
+                firstEpicId = epic.getId();
+            for (int s = 0; s < SUBTASKS_PER_EPIC; s++)
+                taskManager.addSubTask(new SubTask(taskManager.getNextId(), "Load subtask " + s), epic);
+        }
+        int epicStride = SUBTASKS_PER_EPIC + 1, taskBase = firstTaskId, epicBase = firstEpicId;
+
+        String executor = System.getProperty("load.executor", "pool:8");
+        ServerConfig serverConfig = ServerConfig.fromArgs(new String[] {"--port=0", "--backlog=1024", "--executor=" + executor});
+        HttpTaskServer.configureProcess(serverConfig);
+        HttpTaskServer server = new HttpTaskServer(taskManager, serverConfig);
+        server.start();
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(clientExecutor)
+                    .build();
+            List<LoadOperation> mix = List.of(
+                    new LoadOperation("GET /tasks/{id}", 40, (base, random) ->
+                            get(base, "/tasks/" + (taskBase + random.nextInt(TASKS)))),
+                    new LoadOperation("GET /tasks?limit=50", 10, (base, random) ->
+                            get(base, "/tasks?limit=50&cursor=" + (taskBase + random.nextInt(TASKS)))),
+                    new LoadOperation("GET /subtasks?epicId=", 10, (base, random) ->
+                            get(base, "/subtasks?epicId=" + (epicBase + random.nextInt(EPICS) * epicStride))),
+                    new LoadOperation("GET /epics/{id}/subtasks", 10, (base, random) ->
+                            get(base, "/epics/" + (epicBase + random.nextInt(EPICS) * epicStride) + "/subtasks")),
+                    new LoadOperation("GET /prioritized", 5, (base, random) -> get(base, "/prioritized")),
+                    new LoadOperation("GET /history", 5, (base, random) -> get(base, "/history")),
+                    new LoadOperation("PUT /tasks/{id}", 15, (base, random) -> {
+                        int i = random.nextInt(TASKS);
+                        Task task = scheduledTask(taskBase + i, i);
+                        task.setStatus(TaskStatus.values()[random.nextInt(TaskStatus.values().length)]);
+                        return HttpRequest.newBuilder(base.resolve("/tasks/" + task.getId()))
+                                .PUT(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                                .build();
+                    }),
+                    new LoadOperation("POST /tasks", 5, (base, random) ->
+                            HttpRequest.newBuilder(base.resolve("/tasks"))
+                                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(new Task("Load task"))))
+                                    .build())
+            );
+            LoadConfig defaults = LoadConfig.builder()
+                    .mode(mode)
+                    .concurrency(16)
+                    .ratePerSecond(200)
+                    .warmup(Duration.ofSeconds(2))
+                    .duration(Duration.ofSeconds(5))
+                    .build();
+            LoadConfig config = LoadConfig.fromSystemProperties(defaults).toBuilder().mode(mode).build();
+            LoadReport report = new LoadGenerator(client, URI.create("http://localhost:" + server.getPort()), mix)
+                    .run(config);
+            log.info("{} with executor {}:\n{}", mode, executor, report.format());
+            assertTrue(report.total().count() > 0, "No requests were measured");
+            assertEquals(0, report.total().errors(), "Requests failed");
+        } finally {
+            server.stop();
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private static HttpRequest get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).GET().build();
+    }
+
+    /** Задачи не пересекаются по времени, поэтому PUT с прежним интервалом всегда проходит проверку пересечений */
+    private static Task scheduledTask(int id, int i) {
+        Task task = new Task(id, "Load task " + i);
+        task.setStartDateTime(START.plusHours(i));
+        task.setDuration(Duration.ofMinutes(30));
+        return task;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.java.devext.kanban.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Потокобезопасная гистограмма задержек в духе HdrHistogram: значения до 128 нс хранятся точно,
+ * остальные — в корзинах с логарифмическим шагом по 64 корзины на каждую степень двойки,
+ * то есть с относительной погрешностью не больше 1/64. Память фиксирована и не зависит от числа замеров.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 7, SUB_COUNT = 1 << SUB_BITS, HALF = SUB_COUNT / 2;
+    private static final int BUCKETS = SUB_COUNT + (64 - SUB_BITS) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong(), max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        total.incrementAndGet();
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /** Наибольшее значение корзины, в которую попадает заданный процентиль. 0 — для пустой гистограммы. */
+    public long percentile(double percent) {
+        long n = total.get();
+        if (n == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percent / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return Math.min(highestEquivalent(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++)
+            counts.addAndGet(i, other.counts.get(i));
+        total.addAndGet(other.total.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_COUNT)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        int mantissa = (int) (value >>> shift);
+        return SUB_COUNT + (shift - 1) * HALF + (mantissa - HALF);
+    }
+
+    static long highestEquivalent(int index) {
+        if (index < SUB_COUNT)
+            return index;
+        int shift = (index - SUB_COUNT) / HALF + 1;
+        long mantissa = (index - SUB_COUNT) % HALF + HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
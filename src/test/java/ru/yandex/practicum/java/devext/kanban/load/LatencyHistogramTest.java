@@ -0,0 +1,64 @@
+package ru.yandex.practicum.java.devext.kanban.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@DisplayName("Гистограмма задержек")
+class LatencyHistogramTest {
+
+    @Nested
+    @DisplayName("Процентили")
+    class Percentiles {
+
+        @Test
+        @DisplayName("Малые значения точно, большие с погрешностью не больше 1/64")
+        void precision() {
+            // Подготовка
+            LatencyHistogram histogram = new LatencyHistogram();
+
+            // Выполнение
+            for (long v = 1; v <= 100_000; v++)
+                histogram.record(v * 1_000);
+
+            // Проверка
+            assertAll(
+                    () -> assertEquals(100_000, histogram.count()),
+                    () -> assertEquals(100_000_000, histogram.max()),
+                    () -> assertEquals(100_000_000, histogram.percentile(100)),
+                    () -> assertEquals(50_000_000, histogram.percentile(50), 50_000_000 / 64.0),
+                    () -> assertEquals(99_000_000, histogram.percentile(99), 99_000_000 / 64.0),
+                    () -> assertEquals(99_900_000, histogram.percentile(99.9), 99_900_000 / 64.0),
+                    () -> assertEquals(0, new LatencyHistogram().percentile(99))
+            );
+            for (long v = 0; v < 1 << 20; v++) {
+                long high = LatencyHistogram.highestEquivalent(LatencyHistogram.indexOf(v));
+                assertTrue(high >= v && high - v <= v / 64, "Value " + v + " maps to " + high);
+            }
+        }
+
+        @Test
+        @DisplayName("Слияние гистограмм")
+        void merge() {
+            // Подготовка
+            LatencyHistogram fast = new LatencyHistogram(), slow = new LatencyHistogram();
+            for (int i = 0; i < 99; i++)
+                fast.record(10);
+            slow.record(Long.MAX_VALUE);
+
+            // Выполнение
+            fast.add(slow);
+
+            // Проверка
+            assertAll(
+                    () -> assertEquals(100, fast.count()),
+                    () -> assertEquals(10, fast.percentile(99)),
+                    () -> assertEquals(Long.MAX_VALUE, fast.percentile(99.9))
+            );
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.java.devext.kanban.load;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import java.time.Duration;
+
+
+/** Параметры прогона {@link LoadGenerator} */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class LoadConfig {
+
+    public enum Mode {
+        /**
+         * Замкнутый цикл: {@code concurrency} клиентов, каждый отправляет следующий запрос после ответа на предыдущий.
+         * Пока сервер тормозит, запросы не отправляются, поэтому хвост задержек занижается (coordinated omission).
+         */
+        CLOSED,
+        /**
+         * Открытый цикл: запросы отправляются по расписанию с частотой {@code ratePerSecond} независимо от ответов,
+         * а задержка отсчитывается от запланированного, а не фактического момента отправки.
+         */
+        OPEN
+    }
+
+    @Builder.Default
+    private final Mode mode = Mode.OPEN;
+    @Builder.Default
+    private final int concurrency = 16;
+    @Builder.Default
+    private final double ratePerSecond = 1_000;
+    /** Предел одновременно ожидающих ответа запросов в открытом цикле, чтобы перегруженный сервер не исчерпал память */
+    @Builder.Default
+    private final int maxInFlight = 10_000;
+    /** Замеры первых секунд прогона отбрасываются */
+    @Builder.Default
+    private final Duration warmup = Duration.ofSeconds(2);
+    @Builder.Default
+    private final Duration duration = Duration.ofSeconds(10);
+
+    /**
+     * Настройки из системных свойств {@code load.mode}, {@code load.concurrency}, {@code load.rate},
+     * {@code load.warmupSeconds}, {@code load.seconds} поверх заданных по умолчанию
+     */
+    public static LoadConfig fromSystemProperties(LoadConfig defaults) {
+        LoadConfigBuilder builder = defaults.toBuilder();
+        String mode = System.getProperty("load.mode");
+        if (mode != null)
+            builder.mode(Mode.valueOf(mode.toUpperCase()));
+        String concurrency = System.getProperty("load.concurrency");
+        if (concurrency != null)
+            builder.concurrency(Integer.parseInt(concurrency));
+        String rate = System.getProperty("load.rate");
+        if (rate != null)
+            builder.ratePerSecond(Double.parseDouble(rate));
+        String warmup = System.getProperty("load.warmupSeconds");
+        if (warmup != null)
+            builder.warmup(Duration.ofSeconds(Long.parseLong(warmup)));
+        String seconds = System.getProperty("load.seconds");
+        if (seconds != null)
+            builder.duration(Duration.ofSeconds(Long.parseLong(seconds)));
+        return builder.build();
+    }
+}
@@ -0,0 +1,152 @@
+package ru.yandex.practicum.java.devext.kanban.load;
+
+import lombok.extern.slf4j.Slf4j;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Генератор HTTP-нагрузки: отправляет запросы из взвешенной смеси операций и собирает
+ * гистограммы задержек по каждой операции. Режимы — см. {@link LoadConfig.Mode}.
+ */
+@Slf4j
+public class LoadGenerator {
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final List<LoadOperation> mix;
+    private final int[] cumulativeWeights;
+
+    public LoadGenerator(HttpClient client, URI baseUri, List<LoadOperation> mix) {
+        if (mix.isEmpty())
+            throw new IllegalArgumentException("Operation mix is empty");
+        this.client = client;
+        this.baseUri = baseUri;
+        this.mix = List.copyOf(mix);
+        cumulativeWeights = new int[mix.size()];
+        int sum = 0;
+        for (int i = 0; i < mix.size(); i++) {
+            if (mix.get(i).weight() <= 0)
+                throw new IllegalArgumentException("Weight must be positive: " + mix.get(i));
+            sum += mix.get(i).weight();
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    public LoadReport run(LoadConfig config) throws InterruptedException {
+        Recorder recorder = new Recorder(System.nanoTime() + config.getWarmup().toNanos());
+        long end = recorder.measureFrom + config.getDuration().toNanos();
+        switch (config.getMode()) {
+            case CLOSED -> runClosed(config, recorder, end);
+            case OPEN -> runOpen(config, recorder, end);
+        }
+        return recorder.report(config, config.getDuration().toNanos() / 1e9);
+    }
+
+    private void runClosed(LoadConfig config, Recorder recorder, long end) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(config.getConcurrency());
+        for (int i = 0; i < config.getConcurrency(); i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < end) {
+                    int op = nextOperation();
+                    HttpRequest request = mix.get(op).request().create(baseUri, ThreadLocalRandom.current());
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    recorder.record(op, start, System.nanoTime(), status);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(end - System.nanoTime() + TimeUnit.SECONDS.toNanos(30), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Один поток-диспетчер отправляет запросы асинхронно в заранее вычисленные моменты {@code start + k / rate}.
+     * Если диспетчер отстал (сервер не успевает, исчерпан лимит ожидающих запросов), опоздавшие запросы
+     * отправляются сразу, но их задержка всё равно отсчитывается от запланированного момента.
+     */
+    private void runOpen(LoadConfig config, Recorder recorder, long end) throws InterruptedException {
+        double interval = 1e9 / config.getRatePerSecond();
+        Semaphore inFlight = new Semaphore(config.getMaxInFlight());
+        long start = System.nanoTime();
+        for (long k = 0; ; k++) {
+            long intended = start + (long) (k * interval);
+            if (intended >= end)
+                break;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0)
+                LockSupport.parkNanos(wait);
+            inFlight.acquire();
+            int op = nextOperation();
+            HttpRequest request = mix.get(op).request().create(baseUri, ThreadLocalRandom.current());
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        recorder.record(op, intended, System.nanoTime(), e == null ? response.statusCode() : -1);
+                        inFlight.release();
+                    });
+        }
+        if (!inFlight.tryAcquire(config.getMaxInFlight(), 30, TimeUnit.SECONDS))
+            log.warn("{} requests still in flight after the run", config.getMaxInFlight() - inFlight.availablePermits());
+    }
+
+    private int nextOperation() {
+        int r = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; ; i++) {
+            if (r < cumulativeWeights[i])
+                return i;
+        }
+    }
+
+    /** Замеры по операциям. Запросы, запланированные до окончания прогрева, не учитываются. */
+    private class Recorder {
+
+        private final long measureFrom;
+        private final List<LatencyHistogram> latencies = new ArrayList<>();
+        private final List<AtomicLong> errors = new ArrayList<>();
+
+        Recorder(long measureFrom) {
+            this.measureFrom = measureFrom;
+            for (int i = 0; i < mix.size(); i++) {
+                latencies.add(new LatencyHistogram());
+                errors.add(new AtomicLong());
+            }
+        }
+
+        void record(int op, long start, long end, int status) {
+            if (start < measureFrom)
+                return;
+            latencies.get(op).record(end - start);
+            if (status < 0 || status >= 400)
+                errors.get(op).incrementAndGet();
+        }
+
+        LoadReport report(LoadConfig config, double seconds) {
+            Map<String, LoadReport.Endpoint> endpoints = new LinkedHashMap<>();
+            for (int i = 0; i < mix.size(); i++)
+                endpoints.merge(mix.get(i).name(), new LoadReport.Endpoint(latencies.get(i), errors.get(i).get()),
+                        (a, b) -> {
+                            a.latencies().add(b.latencies());
+                            return new LoadReport.Endpoint(a.latencies(), a.errors() + b.errors());
+                        });
+            return new LoadReport(config, seconds, endpoints);
+        }
+    }
+}
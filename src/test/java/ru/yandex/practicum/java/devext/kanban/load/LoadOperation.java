@@ -0,0 +1,20 @@
+package ru.yandex.practicum.java.devext.kanban.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.random.RandomGenerator;
+
+
+/**
+ * Вид запроса в смеси нагрузки.
+ * @param name имя в отчёте, например {@code GET /tasks/{id}}
+ * @param weight относительная доля операции в смеси
+ * @param request строит очередной запрос по базовому адресу сервера
+ */
+public record LoadOperation(String name, int weight, RequestFactory request) {
+
+    @FunctionalInterface
+    public interface RequestFactory {
+        HttpRequest create(URI baseUri, RandomGenerator random);
+    }
+}
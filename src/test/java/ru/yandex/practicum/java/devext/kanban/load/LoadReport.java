@@ -0,0 +1,50 @@
+package ru.yandex.practicum.java.devext.kanban.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Итоги прогона {@link LoadGenerator} по каждой операции смеси и в целом.
+ * @param seconds длительность измеряемой части прогона, без прогрева
+ */
+public record LoadReport(LoadConfig config, double seconds, Map<String, Endpoint> endpoints) {
+
+    /** Замеры одной операции. Ошибки — ответы с кодом 4xx/5xx и исключения клиента, в гистограмму они тоже попадают. */
+    public record Endpoint(LatencyHistogram latencies, long errors) {
+
+        public long count() {
+            return latencies.count();
+        }
+    }
+
+    public Endpoint total() {
+        LatencyHistogram all = new LatencyHistogram();
+        long errors = 0;
+        for (Endpoint e : endpoints.values()) {
+            all.add(e.latencies());
+            errors += e.errors();
+        }
+        return new Endpoint(all, errors);
+    }
+
+    /** Таблица: запросов в секунду, ошибки и процентили задержки в миллисекундах */
+    public String format() {
+        Map<String, Endpoint> rows = new LinkedHashMap<>(endpoints);
+        rows.put("TOTAL", total());
+        int width = rows.keySet().stream().mapToInt(String::length).max().orElse(0);
+        StringBuilder sb = new StringBuilder(String.format("%s, %.1f s%n", config, seconds));
+        sb.append(String.format("%-" + width + "s %10s %8s %8s %8s %8s %8s %8s%n",
+                "", "req/s", "errors", "p50", "p90", "p99", "p99.9", "max"));
+        rows.forEach((name, e) -> sb.append(String.format("%-" + width + "s %10.1f %8d %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                name, e.count() / seconds, e.errors(),
+                millis(e.latencies().percentile(50)), millis(e.latencies().percentile(90)),
+                millis(e.latencies().percentile(99)), millis(e.latencies().percentile(99.9)),
+                millis(e.latencies().max()))));
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
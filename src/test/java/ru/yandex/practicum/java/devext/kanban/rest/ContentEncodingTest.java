@@ -0,0 +1,34 @@
+package ru.yandex.practicum.java.devext.kanban.rest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@DisplayName("Выбор кодирования ответа")
+class ContentEncodingTest {
+
+    @Test
+    @DisplayName("Предпочтения и q=0")
+    void negotiate() {
+        assertAll(
+                () -> assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate(null)),
+                () -> assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("deflate;q=0.5, gzip")),
+                () -> assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0, deflate")),
+                () -> assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("*")),
+                () -> assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("*;q=0")),
+                () -> assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("br"))
+        );
+    }
+
+    @Test
+    @DisplayName("Звёздочка не отменяет явный запрет")
+    void wildcardDoesNotOverrideExplicitRefusal() {
+        assertAll(
+                () -> assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0, *")),
+                () -> assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("*, gzip;q=0")),
+                () -> assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("gzip;q=0, deflate;q=0, *")),
+                () -> assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("deflate;q=0, *"))
+        );
+    }
+}
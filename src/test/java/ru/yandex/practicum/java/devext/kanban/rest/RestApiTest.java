@@ -2,23 +2,30 @@ package ru.yandex.practicum.java.devext.kanban.rest;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import jdk.jfr.Description;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import ru.yandex.practicum.java.devext.kanban.HttpTaskServer;
+import ru.yandex.practicum.java.devext.kanban.ServerConfig;
+import ru.yandex.practicum.java.devext.kanban.task.management.Managers;
 import ru.yandex.practicum.java.devext.kanban.task.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 
 @DisplayName("REST API")
@@ -28,11 +35,13 @@ public class RestApiTest {
     private static Gson gson;
     private static final String baseUrl = "http://localhost:8080";
     private static HttpClient client;
+    private HttpTaskServer server;
     private static final HttpResponse.BodyHandler<String> stringBodyHandler = HttpResponse.BodyHandlers.ofString();
     private static final HttpResponse.BodyHandler<Void> voidBodyHandler = HttpResponse.BodyHandlers.discarding();
 
     @BeforeAll
     static void beforeAll() {
+        HttpTaskServer.configureProcess(ServerConfig.defaults());
         client = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(5))
                 .version(HttpClient.Version.HTTP_1_1)
@@ -47,16 +56,14 @@ public class RestApiTest {
 
     @BeforeEach
     void beforeEach() throws IOException {
-        HttpTaskServer.main(new String[]{});
+        server = new HttpTaskServer(Managers.getDefault(), ServerConfig.defaults());
+        server.start();
     }
 
+    /** Остановка напрямую, а не через /stop: так порт гарантированно освобождён до следующего теста */
     @AfterEach
-    void afterEach() throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .GET()
-                .uri(URI.create(baseUrl + "/stop"))
-                .build();
-        client.send(request, HttpResponse.BodyHandlers.ofPublisher());
+    void afterEach() {
+        server.stop();
     }
 
     @ParameterizedTest
@@ -207,6 +214,50 @@ public class RestApiTest {
             assertEquals(201, response.statusCode());
         }
 
+        @Test
+        @Order(2)
+        @DisplayName("Обновление с проверкой версии")
+        void conditionalUpdate() throws IOException, InterruptedException {
+            // Подготовка
+            HttpRequest request = HttpRequest.newBuilder()
+                    .GET()
+                    .uri(URI.create(baseUrl + "/tasks/" + baseTask.getId()))
+                    .header("Accept-Encoding", "gzip")
+                    .build();
+            String etag = client.send(request, voidBodyHandler).headers().firstValue("ETag").orElseThrow();
+            baseTask.setDescription("Updated");
+            String body = gson.toJson(baseTask);
+            // Выполнение
+            request = HttpRequest.newBuilder()
+                    .PUT(HttpRequest.BodyPublishers.ofString(body))
+                    .uri(URI.create(baseUrl + "/tasks/" + baseTask.getId()))
+                    .header("If-Match", etag)
+                    .build();
+            HttpResponse<Void> matchedRs = client.send(request, voidBodyHandler);
+            HttpResponse<Void> staleEtagRs = client.send(request, voidBodyHandler);
+            request = HttpRequest.newBuilder()
+                    .PUT(HttpRequest.BodyPublishers.ofString(body))
+                    .uri(URI.create(baseUrl + "/tasks/" + baseTask.getId()))
+                    .build();
+            HttpResponse<Void> staleBodyRs = client.send(request, voidBodyHandler);
+            request = HttpRequest.newBuilder()
+                    .PUT(HttpRequest.BodyPublishers.ofString(body))
+                    .uri(URI.create(baseUrl + "/tasks/" + baseTask.getId()))
+                    .header("If-Match", "\"foreign\"")
+                    .build();
+            HttpResponse<Void> foreignEtagRs = client.send(request, voidBodyHandler);
+            // Проверка
+            assertAll(
+                    () -> assertTrue(etag.endsWith("-gzip\"")),
+                    () -> assertEquals(201, matchedRs.statusCode()),
+                    () -> assertNotEquals(etag, matchedRs.headers().firstValue("ETag").orElse(etag)),
+                    () -> assertEquals(412, staleEtagRs.statusCode()),
+                    () -> assertEquals(409, staleBodyRs.statusCode()),
+                    () -> assertEquals(412, foreignEtagRs.statusCode()),
+                    () -> assertEquals(2, server.getTaskManager().getTaskById(baseTask.getId()).getVersion())
+            );
+        }
+
         @Test
         @Order(3)
         @DisplayName("Добавление непересекающейся")
@@ -254,7 +305,345 @@ public class RestApiTest {
             // Проверка
             assertAll(
                     () -> assertEquals(200, testRs.statusCode()),
-                    () -> assertEquals(refTasks, actualTasks)
+                    () -> assertEquals(refTasks, actualTasks),
+                    () -> assertEquals(String.valueOf(testRs.body().getBytes(StandardCharsets.UTF_8).length),
+                            testRs.headers().firstValue("Content-Length").orElse(null))
+            );
+        }
+
+        @Test
+        @Order(4)
+        @DisplayName("Постраничное получение")
+        void getPaged() throws IOException, InterruptedException {
+            // Подготовка
+            Task second = new Task("Second page task");
+            second.setStartDateTime(baseTask.getEndDateTime().plusMinutes(30));
+            second.setDuration(Duration.ofHours(1));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(second)))
+                    .uri(URI.create(baseUrl + "/tasks"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            second = gson.fromJson(client.send(request, stringBodyHandler).body(), Task.class);
+            // Выполнение
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/tasks?limit=1")).build();
+            HttpResponse<String> firstRs = client.send(request, stringBodyHandler);
+            String cursor = firstRs.headers().firstValue("X-Next-Cursor").orElseThrow();
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/tasks?limit=1&cursor=" + cursor)).build();
+            HttpResponse<String> secondRs = client.send(request, stringBodyHandler);
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/tasks?limit=0")).build();
+            HttpResponse<Void> badRs = client.send(request, voidBodyHandler);
+            // Проверка
+            List<Task> firstPage = gson.fromJson(firstRs.body(), new TaskListTypeToken().getType());
+            List<Task> secondPage = gson.fromJson(secondRs.body(), new TaskListTypeToken().getType());
+            Task expectedSecond = second;
+            assertAll(
+                    () -> assertEquals(List.of(baseTask), firstPage),
+                    () -> assertEquals(List.of(expectedSecond), secondPage),
+                    () -> assertTrue(secondRs.headers().firstValue("X-Next-Cursor").isEmpty()),
+                    () -> assertEquals(400, badRs.statusCode())
+            );
+        }
+
+        @Test
+        @Order(4)
+        @DisplayName("Приоритет в интервале времени")
+        void prioritizedRange() throws IOException, InterruptedException {
+            // Подготовка
+            List<Task> batch = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Task t = new Task("Range task " + i);
+                t.setStartDateTime(LocalDateTime.of(2030, 1, 1, 9 + 2 * i, 0));
+                t.setDuration(Duration.ofHours(1));
+                batch.add(t);
+            }
+            HttpRequest request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(batch)))
+                    .uri(URI.create(baseUrl + "/tasks/batch"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            HttpResponse<String> addRs = client.send(request, stringBodyHandler);
+            List<Task> created = gson.fromJson(addRs.body(), new TaskListTypeToken().getType());
+            String range = "/prioritized?from=01.01.2030T09:30:00&to=01.01.2030T13:00:00";
+            // Выполнение
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + range)).build();
+            HttpResponse<String> rangeRs = client.send(request, stringBodyHandler);
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + range + "&limit=1")).build();
+            HttpResponse<String> limitedRs = client.send(request, stringBodyHandler);
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/prioritized?from=tomorrow")).build();
+            HttpResponse<Void> badRs = client.send(request, voidBodyHandler);
+            request = HttpRequest.newBuilder().GET()
+                    .uri(URI.create(baseUrl + "/prioritized?from=01.01.2030T13:00:00&to=01.01.2030T09:30:00")).build();
+            HttpResponse<Void> reversedRs = client.send(request, voidBodyHandler);
+            // Проверка
+            List<Task> inRange = gson.fromJson(rangeRs.body(), new TaskListTypeToken().getType());
+            List<Task> limited = gson.fromJson(limitedRs.body(), new TaskListTypeToken().getType());
+            assertAll(
+                    () -> assertEquals(200, rangeRs.statusCode()),
+                    () -> assertEquals(created.subList(0, 2), inRange),
+                    () -> assertEquals(created.subList(0, 1), limited),
+                    () -> assertEquals(400, badRs.statusCode()),
+                    () -> assertEquals(400, reversedRs.statusCode())
+            );
+        }
+
+        @Test
+        @Order(4)
+        @DisplayName("Приоритет без параметров не показывает часть пакета")
+        void prioritizedDuringBatches() throws IOException, InterruptedException {
+            // Подготовка
+            int batchSize = 10;
+            List<String> torn = new ArrayList<>();
+            Thread writer = new Thread(() -> {
+                LocalDateTime start = LocalDateTime.of(2031, 1, 1, 0, 0);
+                for (int round = 0; round < 200; round++) {
+                    List<Task> batch = new ArrayList<>();
+                    for (int i = 0; i < batchSize; i++) {
+                        Task t = new Task(server.getTaskManager().getNextId(), "Batch task");
+                        t.setStartDateTime(start.plusHours(round * batchSize + i));
+                        t.setDuration(Duration.ofMinutes(30));
+                        batch.add(t);
+                    }
+                    server.getTaskManager().addTasks(batch);
+                    server.getTaskManager().removeTasks(batch.stream().map(Task::getId).toList());
+                }
+            });
+            HttpRequest request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/prioritized")).build();
+            // Выполнение
+            writer.start();
+            while (writer.isAlive()) {
+                int size = JsonParser.parseString(client.send(request, stringBodyHandler).body()).getAsJsonArray().size();
+                if ((size - 1) % batchSize != 0)
+                    torn.add("prioritized: " + size);
+            }
+            writer.join();
+            // Проверка
+            assertEquals(List.of(), torn);
+        }
+
+        @Test
+        @Order(4)
+        @DisplayName("Пакетные операции")
+        void batch() throws IOException, InterruptedException {
+            // Подготовка
+            List<Task> batch = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Task t = new Task("Batch task " + i);
+                t.setStartDateTime(baseTask.getEndDateTime().plusHours(i + 1));
+                t.setDuration(Duration.ofMinutes(30));
+                batch.add(t);
+            }
+            // Выполнение
+            HttpRequest request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(batch)))
+                    .uri(URI.create(baseUrl + "/tasks/batch"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            HttpResponse<String> addRs = client.send(request, stringBodyHandler);
+            List<Task> created = gson.fromJson(addRs.body(), new TaskListTypeToken().getType());
+            String ids = created.get(0).getId() + "," + created.get(2).getId();
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/tasks/batch?ids=" + ids)).build();
+            HttpResponse<String> getRs = client.send(request, stringBodyHandler);
+            request = HttpRequest.newBuilder().DELETE().uri(URI.create(baseUrl + "/tasks/batch?ids=" + ids)).build();
+            HttpResponse<Void> removeRs = client.send(request, voidBodyHandler);
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/tasks")).build();
+            HttpResponse<String> allRs = client.send(request, stringBodyHandler);
+            Task overlapping = new Task("Overlapping batch task");
+            overlapping.setStartDateTime(baseTask.getStartDateTime());
+            overlapping.setDuration(Duration.ofMinutes(10));
+            request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(List.of(overlapping))))
+                    .uri(URI.create(baseUrl + "/tasks/batch"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            HttpResponse<Void> overlapRs = client.send(request, voidBodyHandler);
+            // Проверка
+            List<Task> fetched = gson.fromJson(getRs.body(), new TaskListTypeToken().getType());
+            List<Task> remaining = gson.fromJson(allRs.body(), new TaskListTypeToken().getType());
+            assertAll(
+                    () -> assertEquals(201, addRs.statusCode()),
+                    () -> assertEquals(3, created.size()),
+                    () -> assertEquals(List.of(created.get(0), created.get(2)), fetched),
+                    () -> assertEquals(200, removeRs.statusCode()),
+                    () -> assertEquals(List.of(baseTask, created.get(1)), remaining),
+                    () -> assertEquals(406, overlapRs.statusCode())
+            );
+        }
+
+        @Test
+        @Order(4)
+        @DisplayName("Сжатие большого списка")
+        void compressedList() throws IOException, InterruptedException {
+            // Подготовка
+            List<Task> batch = new ArrayList<>();
+            for (int i = 0; i < 50; i++)
+                batch.add(new Task("Compressed list task " + i));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(batch)))
+                    .uri(URI.create(baseUrl + "/tasks/batch"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            client.send(request, voidBodyHandler);
+            // Выполнение
+            request = HttpRequest.newBuilder()
+                    .GET()
+                    .uri(URI.create(baseUrl + "/tasks"))
+                    .header("Accept-Encoding", "deflate;q=0.5, gzip")
+                    .build();
+            HttpResponse<byte[]> gzipRs = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/tasks")).build();
+            HttpResponse<String> plainRs = client.send(request, stringBodyHandler);
+            // Проверка
+            String unzipped;
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipRs.body()))) {
+                unzipped = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertAll(
+                    () -> assertEquals("gzip", gzipRs.headers().firstValue("Content-Encoding").orElse(null)),
+                    () -> assertEquals("chunked", gzipRs.headers().firstValue("Transfer-Encoding").orElse(null)),
+                    () -> assertTrue(gzipRs.body().length < plainRs.body().length()),
+                    () -> assertEquals(plainRs.body(), unzipped),
+                    () -> assertTrue(plainRs.headers().firstValue("Content-Encoding").isEmpty())
+            );
+        }
+
+        @Test
+        @Order(4)
+        @DisplayName("Условный запрос по ETag")
+        void conditionalGet() throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/tasks")).build();
+            HttpResponse<String> firstRs = client.send(request, stringBodyHandler);
+            String etag = firstRs.headers().firstValue("ETag").orElseThrow();
+            HttpRequest conditional = HttpRequest.newBuilder()
+                    .GET()
+                    .uri(URI.create(baseUrl + "/tasks"))
+                    .header("If-None-Match", etag)
+                    .build();
+            HttpResponse<String> unchangedRs = client.send(conditional, stringBodyHandler);
+            HttpRequest gzipConditional = HttpRequest.newBuilder()
+                    .GET()
+                    .uri(URI.create(baseUrl + "/tasks"))
+                    .header("Accept-Encoding", "gzip")
+                    .header("If-None-Match", etag)
+                    .build();
+            HttpResponse<Void> otherEncodingRs = client.send(gzipConditional, voidBodyHandler);
+            String gzipEtag = otherEncodingRs.headers().firstValue("ETag").orElseThrow();
+            gzipConditional = HttpRequest.newBuilder()
+                    .GET()
+                    .uri(URI.create(baseUrl + "/tasks"))
+                    .header("Accept-Encoding", "gzip")
+                    .header("If-None-Match", gzipEtag)
+                    .build();
+            HttpResponse<Void> unchangedGzipRs = client.send(gzipConditional, voidBodyHandler);
+            Task another = new Task("Another task");
+            request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(another)))
+                    .uri(URI.create(baseUrl + "/tasks"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            client.send(request, voidBodyHandler);
+            HttpResponse<String> changedRs = client.send(conditional, stringBodyHandler);
+            assertAll(
+                    () -> assertEquals(200, firstRs.statusCode()),
+                    () -> assertEquals(304, unchangedRs.statusCode()),
+                    () -> assertEquals("", unchangedRs.body()),
+                    () -> assertEquals(200, otherEncodingRs.statusCode()),
+                    () -> assertNotEquals(etag, gzipEtag),
+                    () -> assertEquals(304, unchangedGzipRs.statusCode()),
+                    () -> assertEquals(200, changedRs.statusCode()),
+                    () -> assertNotEquals(etag, changedRs.headers().firstValue("ETag").orElseThrow())
+            );
+        }
+
+        @Test
+        @Order(4)
+        @DisplayName("Метрики")
+        void metrics() throws IOException, InterruptedException {
+            Task overlappingTask = new Task("Overlapping task");
+            overlappingTask.setStartDateTime(baseTask.getStartDateTime());
+            overlappingTask.setDuration(Duration.ofHours(1));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(overlappingTask)))
+                    .uri(URI.create(baseUrl + "/tasks"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            client.send(request, voidBodyHandler);
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/metrics")).build();
+            // Счётчики запроса пополняются уже после отправки ответа, и в пуле это может случиться позже чтения метрик
+            String rejected = "http_requests_total{handler=\"/tasks\",method=\"POST\",code=\"406\"} 1";
+            HttpResponse<String> response = client.send(request, stringBodyHandler);
+            for (int attempt = 0; attempt < 50 && !response.body().lines().toList().contains(rejected); attempt++) {
+                Thread.sleep(20);
+                response = client.send(request, stringBodyHandler);
+            }
+            List<String> lines = response.body().lines().toList();
+            HttpResponse<String> metricsRs = response;
+            assertAll(
+                    () -> assertEquals(200, metricsRs.statusCode()),
+                    () -> assertTrue(metricsRs.headers().firstValue("Content-Type").orElseThrow().startsWith("text/plain")),
+                    () -> assertTrue(lines.contains("# TYPE http_request_duration_seconds histogram")),
+                    () -> assertTrue(lines.contains("http_requests_total{handler=\"/tasks\",method=\"POST\",code=\"201\"} 1")),
+                    () -> assertTrue(lines.contains(rejected)),
+                    () -> assertTrue(lines.contains("http_request_duration_seconds_count{handler=\"/tasks\"} 2")),
+                    () -> assertTrue(lines.contains("kanban_manager_operation_errors_total"
+                            + "{operation=\"addTask\",exception=\"ExecutionDateTimeOverlapException\"} 1")),
+                    () -> assertTrue(lines.contains("kanban_tasks{kind=\"task\"} 1"))
+            );
+        }
+
+        @Test
+        @Order(4)
+        @DisplayName("Свободный интервал")
+        void freeSlot() throws IOException, InterruptedException {
+            // Подготовка
+            Task morning = new Task("Morning task");
+            morning.setStartDateTime(LocalDateTime.of(2030, 1, 1, 9, 0));
+            morning.setDuration(Duration.ofHours(1));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(morning)))
+                    .uri(URI.create(baseUrl + "/tasks"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            client.send(request, voidBodyHandler);
+            String window = "notBefore=01.01.2030T09:00:00&notAfter=01.01.2030T10:30:00";
+            Task booked = new Task("Booked task");
+            booked.setDuration(Duration.ofMinutes(30));
+            // Выполнение
+            request = HttpRequest.newBuilder().GET()
+                    .uri(URI.create(baseUrl + "/tasks/free-slot?duration=PT30M&" + window)).build();
+            HttpResponse<String> slotRs = client.send(request, stringBodyHandler);
+            request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(booked)))
+                    .uri(URI.create(baseUrl + "/tasks/free-slot?" + window))
+                    .header("Content-Type", "application/json")
+                    .build();
+            HttpResponse<String> bookRs = client.send(request, stringBodyHandler);
+            request = HttpRequest.newBuilder().GET()
+                    .uri(URI.create(baseUrl + "/tasks/free-slot?duration=PT30M&" + window)).build();
+            HttpResponse<Void> noSlotRs = client.send(request, voidBodyHandler);
+            request = HttpRequest.newBuilder().GET()
+                    .uri(URI.create(baseUrl + "/tasks/free-slot?duration=30")).build();
+            HttpResponse<Void> badRs = client.send(request, voidBodyHandler);
+            Task done = new Task("Done task");
+            done.setDuration(Duration.ofMinutes(10));
+            done.setStatus(TaskStatus.DONE);
+            request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(done)))
+                    .uri(URI.create(baseUrl + "/tasks/free-slot"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            HttpResponse<Void> doneRs = client.send(request, voidBodyHandler);
+            // Проверка
+            assertAll(
+                    () -> assertEquals(200, slotRs.statusCode()),
+                    () -> assertEquals("{\"startDateTime\":\"01.01.2030T10:00:00\",\"endDateTime\":\"01.01.2030T10:30:00\"}",
+                            slotRs.body()),
+                    () -> assertEquals(201, bookRs.statusCode()),
+                    () -> assertEquals(LocalDateTime.of(2030, 1, 1, 10, 0),
+                            gson.fromJson(bookRs.body(), Task.class).getStartDateTime()),
+                    () -> assertEquals(404, noSlotRs.statusCode()),
+                    () -> assertEquals(400, badRs.statusCode()),
+                    () -> assertEquals(400, doneRs.statusCode())
             );
         }
 
@@ -351,6 +740,44 @@ public class RestApiTest {
 
         @Test
         @Order(3)
+        @DisplayName("Подзадачи эпика со сводкой")
+        void getSubTasksWithRollup() throws IOException, InterruptedException {
+            // Подготовка
+            List<SubTask> refSubTasks = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                SubTask st = new SubTask("Epic subtask " + i);
+                st.setEpicId(baseEpic.getId());
+                st.setStartDateTime(LocalDateTime.of(2030, 1, 1, 9, 0).plusHours(i * 2));
+                st.setDuration(Duration.ofHours(1));
+                HttpRequest request = HttpRequest.newBuilder()
+                        .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(st)))
+                        .uri(URI.create(baseUrl + "/subtasks"))
+                        .header("Content-Type", "application/json")
+                        .build();
+                refSubTasks.add(gson.fromJson(client.send(request, stringBodyHandler).body(), SubTask.class));
+            }
+            // Выполнение
+            HttpRequest request = HttpRequest.newBuilder().GET()
+                    .uri(URI.create(baseUrl + "/epics/" + baseEpic.getId() + "/subtasks?limit=1&rollup=true"))
+                    .build();
+            HttpResponse<String> testRs = client.send(request, stringBodyHandler);
+            // Проверка
+            JsonObject body = JsonParser.parseString(testRs.body()).getAsJsonObject();
+            JsonObject rollup = body.getAsJsonObject("rollup");
+            List<SubTask> actualSubTasks = gson.fromJson(body.get("subtasks"), new SubTaskListTypeToken().getType());
+            assertAll(
+                    () -> assertEquals(200, testRs.statusCode()),
+                    () -> assertEquals(refSubTasks.subList(0, 1), actualSubTasks),
+                    () -> assertEquals(String.valueOf(refSubTasks.get(0).getId()),
+                            testRs.headers().firstValue("X-Next-Cursor").orElse(null)),
+                    () -> assertEquals(2, rollup.get("subTaskCount").getAsInt()),
+                    () -> assertEquals("NEW", rollup.get("status").getAsString()),
+                    () -> assertEquals(Duration.ofHours(2), gson.fromJson(rollup.get("duration"), Duration.class))
+            );
+        }
+
+        @Test
+        @Order(4)
         @DisplayName("Удаление")
         void remove() throws IOException, InterruptedException {
             HttpRequest request = HttpRequest.newBuilder()
@@ -471,6 +898,37 @@ public class RestApiTest {
             );
         }
 
+        @Test
+        @Order(4)
+        @DisplayName("Выборка по эпику и статусу")
+        void getFiltered() throws IOException, InterruptedException {
+            // Подготовка
+            SubTask otherEpicSubTask = new SubTask("Other epic subtask");
+            otherEpicSubTask.setEpicId(addBaseEpic().getId());
+            HttpRequest request = HttpRequest.newBuilder()
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(otherEpicSubTask)))
+                    .uri(URI.create(baseUrl + "/subtasks"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            client.send(request, voidBodyHandler);
+            // Выполнение
+            request = HttpRequest.newBuilder().GET()
+                    .uri(URI.create(baseUrl + "/subtasks?epicId=" + baseSubTask.getEpicId())).build();
+            HttpResponse<String> byEpicRs = client.send(request, stringBodyHandler);
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/subtasks?status=DONE")).build();
+            HttpResponse<String> byStatusRs = client.send(request, stringBodyHandler);
+            request = HttpRequest.newBuilder().GET().uri(URI.create(baseUrl + "/subtasks?status=UNKNOWN")).build();
+            HttpResponse<Void> badRs = client.send(request, voidBodyHandler);
+            // Проверка
+            List<SubTask> byEpic = gson.fromJson(byEpicRs.body(), new SubTaskListTypeToken().getType());
+            List<SubTask> byStatus = gson.fromJson(byStatusRs.body(), new SubTaskListTypeToken().getType());
+            assertAll(
+                    () -> assertEquals(List.of(baseSubTask), byEpic),
+                    () -> assertEquals(List.of(), byStatus),
+                    () -> assertEquals(400, badRs.statusCode())
+            );
+        }
+
         @Test
         @Order(5)
         @DisplayName("Удаление")
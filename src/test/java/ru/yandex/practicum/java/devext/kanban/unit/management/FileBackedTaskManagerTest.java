@@ -1,25 +1,39 @@
 package ru.yandex.practicum.java.devext.kanban.unit.management;
 
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import ru.yandex.practicum.java.devext.kanban.unit.BaseUnitTest;
 import ru.yandex.practicum.java.devext.kanban.task.Epic;
 import ru.yandex.practicum.java.devext.kanban.task.TaskStatus;
 import ru.yandex.practicum.java.devext.kanban.task.SubTask;
 import ru.yandex.practicum.java.devext.kanban.task.Task;
 import ru.yandex.practicum.java.devext.kanban.task.management.NotFoundException;
+import ru.yandex.practicum.java.devext.kanban.task.management.VersionConflictException;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.BackupConfig;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.DurabilityPolicy;
 import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.FileBackedTaskManager;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.ManagerLoadException;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.PersistenceMode;
+import ru.yandex.practicum.java.devext.kanban.task.management.filebacked.SnapshotFormat;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static ru.yandex.practicum.java.devext.kanban.task.management.CommonDateTimeFormatter.ISO_LOCAL;
 
 
@@ -40,6 +54,65 @@ public class FileBackedTaskManagerTest extends BaseUnitTest {
         );
     }
 
+    @ParameterizedTest
+    @DisplayName("Версии задач сохраняются при перезапуске")
+    @ValueSource(strings = {"csv", "binary", "journal"})
+    void versionsSurviveRestart(String storage) throws IOException {
+        // Подготовка
+        Path backupPath = Paths.get("src", "test", "resources", "tmp_versions_backup");
+        BackupConfig config = switch (storage) {
+            case "binary" -> BackupConfig.builder().snapshotFormat(SnapshotFormat.BINARY).build();
+            case "journal" -> BackupConfig.builder().mode(PersistenceMode.JOURNAL).build();
+            default -> BackupConfig.defaults();
+        };
+        deleteBackupFiles(backupPath);
+        taskManager = new FileBackedTaskManager(backupPath, config);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        Task task = new Task(taskManager.getNextId(), "Task");
+        task.setStartDateTime(start);
+        task.setDuration(Duration.ofHours(1));
+        taskManager.addTask(task);
+        Epic epic = new Epic(taskManager.getNextId(), "Epic");
+        taskManager.addEpic(epic);
+        SubTask subTask = new SubTask(taskManager.getNextId(), "Subtask");
+        subTask.setStartDateTime(start.plusHours(2));
+        subTask.setDuration(Duration.ofHours(1));
+        taskManager.addSubTask(subTask, epic);
+        for (String name : List.of("First edit", "Second edit")) {
+            Task updatedTask = new Task(task.getId(), name);
+            updatedTask.setStartDateTime(start);
+            updatedTask.setDuration(Duration.ofHours(1));
+            taskManager.updateTask(updatedTask);
+        }
+        SubTask updatedSubTask = new SubTask(subTask.getId(), "Edited subtask");
+        updatedSubTask.setEpicId(epic.getId());
+        updatedSubTask.setStartDateTime(start.plusHours(2));
+        updatedSubTask.setDuration(Duration.ofHours(1));
+        taskManager.updateSubTask(updatedSubTask);
+        long epicVersion = taskManager.getEpicById(epic.getId()).getVersion();
+        taskManager.close();
+        // Выполнение
+        FileBackedTaskManager restored = new FileBackedTaskManager(backupPath, config);
+        Task stale = new Task(task.getId(), "Stale edit");
+        stale.setVersion(1);
+        // Проверка
+        assertAll(
+                () -> assertEquals(3, restored.getTaskById(task.getId()).getVersion()),
+                () -> assertEquals(2, restored.getSubTaskById(subTask.getId()).getVersion()),
+                () -> assertEquals(epicVersion, restored.getEpicById(epic.getId()).getVersion()),
+                () -> assertThrows(VersionConflictException.class, () -> restored.updateTask(stale)),
+                () -> assertEquals("Second edit", restored.getTaskById(task.getId()).getName())
+        );
+        restored.close();
+        deleteBackupFiles(backupPath);
+    }
+
+    private static void deleteBackupFiles(Path backupPath) throws IOException {
+        Files.deleteIfExists(backupPath);
+        Files.deleteIfExists(FileBackedTaskManager.journalPath(backupPath));
+        Files.deleteIfExists(FileBackedTaskManager.retiredJournalPath(backupPath));
+    }
+
     @Nested
     @DisplayName("Операции с одиночными задачами")
     class SingleTaskTest {
@@ -193,6 +266,286 @@ public class FileBackedTaskManagerTest extends BaseUnitTest {
         }
     }
 
+    @Nested
+    @DisplayName("Журнал изменений")
+    class JournalTest {
+
+        private static final Path tmpBackupPath = Paths.get("src", "test", "resources", "tmp_journal_backup.csv");
+        private static final Path tmpJournalPath = FileBackedTaskManager.journalPath(tmpBackupPath);
+        private static final Path tmpRetiredJournalPath = FileBackedTaskManager.retiredJournalPath(tmpBackupPath);
+        private final BackupConfig config = BackupConfig.builder()
+                .mode(PersistenceMode.JOURNAL)
+                .build();
+
+        @BeforeEach
+        void beforeEach() throws IOException {
+            Files.deleteIfExists(tmpBackupPath);
+            Files.deleteIfExists(tmpJournalPath);
+            Files.deleteIfExists(tmpRetiredJournalPath);
+            taskManager = new FileBackedTaskManager(tmpBackupPath, config);
+        }
+
+        @AfterEach
+        void afterEach() throws IOException {
+            taskManager.close();
+            Files.deleteIfExists(tmpBackupPath);
+            Files.deleteIfExists(tmpJournalPath);
+            Files.deleteIfExists(tmpRetiredJournalPath);
+        }
+
+        @Test
+        @DisplayName("Восстановление из журнала без снимка")
+        void replayJournal() throws IOException {
+            List<Task> refTasks = new LinkedList<>();
+            addTasks(refTasks, taskManager, 3);
+            List<Task> refEpics = new LinkedList<>(), refSubTasks = new LinkedList<>();
+            addEpicWithSubTasks(refEpics, refSubTasks, taskManager, 1, 2);
+            Task epic = refEpics.get(0);
+            taskManager.removeTask(refTasks.get(0).getId());
+            Task updated = refTasks.get(1);
+            updated.setDescription(UUID.randomUUID().toString());
+            taskManager.updateTask(updated);
+            FileBackedTaskManager restored = new FileBackedTaskManager(tmpBackupPath, config);
+            assertAll(
+                    () -> assertFalse(Files.exists(tmpBackupPath)),
+                    () -> assertEquals(2, restored.getTasks().size()),
+                    () -> assertEquals(updated.getDescription(), restored.getTaskById(updated.getId()).getDescription()),
+                    () -> assertEquals(2, restored.getEpicById(epic.getId()).getSubTaskIds().size()),
+                    () -> assertEquals(refSubTasks.get(0).getStartDateTime(),
+                            restored.getSubTaskById(refSubTasks.get(0).getId()).getStartDateTime())
+            );
+            restored.close();
+        }
+
+        @Test
+        @DisplayName("Пакетные добавление и удаление")
+        void replayBatches() throws IOException {
+            Epic epic = new Epic(taskManager.getNextId(), "Batch epic");
+            taskManager.addEpic(epic);
+            List<Task> batch = new ArrayList<>();
+            List<SubTask> subBatch = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                batch.add(new Task(taskManager.getNextId(), "Batch task " + i));
+                SubTask st = new SubTask(taskManager.getNextId(), "Batch subtask " + i);
+                st.setEpicId(epic.getId());
+                subBatch.add(st);
+            }
+            taskManager.addTasks(batch);
+            taskManager.addSubTasks(subBatch);
+            taskManager.removeTasks(List.of(batch.get(0).getId(), batch.get(1).getId()));
+            taskManager.removeSubTasks(List.of(subBatch.get(2).getId()));
+            FileBackedTaskManager restored = new FileBackedTaskManager(tmpBackupPath, config);
+            assertAll(
+                    () -> assertEquals(List.of(batch.get(2)), restored.getTasks()),
+                    () -> assertEquals(subBatch.subList(0, 2), restored.getSubTasks()),
+                    () -> assertEquals(2, restored.getEpicById(epic.getId()).getSubTaskIds().size())
+            );
+            restored.close();
+        }
+
+        @Test
+        @DisplayName("Снимок и хвост журнала после контрольной точки")
+        void replaySnapshotAndJournalTail() throws IOException {
+            addTasks(new LinkedList<>(), taskManager, 2);
+            taskManager.checkpoint();
+            long journalSizeAfterCheckpoint = Files.size(tmpJournalPath);
+            addTasks(new LinkedList<>(), taskManager, 1);
+            FileBackedTaskManager restored = new FileBackedTaskManager(tmpBackupPath, config);
+            assertAll(
+                    () -> assertEquals(0, journalSizeAfterCheckpoint),
+                    () -> assertTrue(Files.exists(tmpBackupPath)),
+                    () -> assertEquals(3, restored.getTasks().size())
+            );
+            restored.close();
+        }
+
+        @ParameterizedTest
+        @DisplayName("Групповая запись при одновременных изменениях")
+        @ValueSource(strings = {"per-write", "interval:5", "batch:16"})
+        void groupCommit(String policy) throws Exception {
+            taskManager.close();
+            taskManager = new FileBackedTaskManager(tmpBackupPath, BackupConfig.builder()
+                    .mode(PersistenceMode.JOURNAL)
+                    .durabilityPolicy(DurabilityPolicy.parse(policy))
+                    .build());
+            LocalDateTime start = LocalDateTime.now();
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            for (int i = 0; i < 100; i++) {
+                Task t = new Task(taskManager.getNextId(), "Test task " + i);
+                t.setStartDateTime(start.plusHours(t.getId()));
+                t.setDuration(Duration.ofMinutes(30));
+                executor.submit(() -> taskManager.addTask(t));
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            taskManager.whenDurable().get(10, TimeUnit.SECONDS);
+            FileBackedTaskManager restored = new FileBackedTaskManager(tmpBackupPath, config);
+            assertEquals(100, restored.getTasks().size());
+            restored.close();
+        }
+
+        @Test
+        @DisplayName("Фоновая контрольная точка при одновременных изменениях")
+        void backgroundCheckpoint() throws Exception {
+            taskManager.close();
+            taskManager = new FileBackedTaskManager(tmpBackupPath, BackupConfig.builder()
+                    .mode(PersistenceMode.JOURNAL)
+                    .checkpointThreshold(50)
+                    .build());
+            LocalDateTime start = LocalDateTime.now();
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            for (int i = 0; i < 400; i++) {
+                Task t = new Task(taskManager.getNextId(), "Test task " + i);
+                t.setStartDateTime(start.plusHours(t.getId()));
+                t.setDuration(Duration.ofMinutes(30));
+                executor.submit(() -> taskManager.addTask(t));
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            taskManager.checkpointInBackground().get(10, TimeUnit.SECONDS);
+            FileBackedTaskManager restored = new FileBackedTaskManager(tmpBackupPath, config);
+            assertAll(
+                    () -> assertTrue(Files.exists(tmpBackupPath)),
+                    () -> assertFalse(Files.exists(tmpRetiredJournalPath)),
+                    () -> assertEquals(400, restored.getTasks().size())
+            );
+            restored.close();
+        }
+
+        @Test
+        @DisplayName("Восстановление после прерванной фоновой контрольной точки")
+        void recoverInterruptedCheckpoint() throws IOException {
+            // Подготовка: журнал отложен, а снимок записать не успели
+            addTasks(new LinkedList<>(), taskManager, 2);
+            taskManager.close();
+            Files.move(tmpJournalPath, tmpRetiredJournalPath);
+            // Выполнение
+            taskManager = new FileBackedTaskManager(tmpBackupPath, config);
+            addTasks(new LinkedList<>(), taskManager, 1);
+            FileBackedTaskManager restored = new FileBackedTaskManager(tmpBackupPath, config);
+            // Проверка
+            assertAll(
+                    () -> assertEquals(3, restored.getTasks().size()),
+                    () -> assertTrue(Files.exists(tmpBackupPath)),
+                    () -> assertFalse(Files.exists(tmpRetiredJournalPath))
+            );
+            restored.close();
+        }
+
+        @Test
+        @DisplayName("Порог объёма журнала учитывает журнал, восстановленный при запуске")
+        void journalBytesThresholdAfterRestart() throws IOException {
+            // Подготовка
+            addTasks(new LinkedList<>(), taskManager, 20);
+            taskManager.close();
+            long journalBytes = Files.size(tmpJournalPath);
+            // Выполнение
+            taskManager = new FileBackedTaskManager(tmpBackupPath, BackupConfig.builder()
+                    .mode(PersistenceMode.JOURNAL)
+                    .checkpointJournalBytes(journalBytes + 1)
+                    .build());
+            addTasks(new LinkedList<>(), taskManager, 1);
+            taskManager.close();
+            FileBackedTaskManager restored = new FileBackedTaskManager(tmpBackupPath, config);
+            // Проверка
+            assertAll(
+                    () -> assertTrue(Files.size(tmpJournalPath) < journalBytes),
+                    () -> assertFalse(Files.exists(tmpRetiredJournalPath)),
+                    () -> assertEquals(21, restored.getTasks().size())
+            );
+            restored.close();
+        }
+
+        @Test
+        @DisplayName("Отбрасывание повреждённого хвоста журнала")
+        void discardBrokenTail() throws IOException {
+            addTasks(new LinkedList<>(), taskManager, 2);
+            long validSize = Files.size(tmpJournalPath);
+            Files.write(tmpJournalPath, new byte[] {0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+            FileBackedTaskManager restored = new FileBackedTaskManager(tmpBackupPath, config);
+            assertAll(
+                    () -> assertEquals(2, restored.getTasks().size()),
+                    () -> assertEquals(validSize, Files.size(tmpJournalPath))
+            );
+            restored.close();
+        }
+    }
+
+    @Nested
+    @DisplayName("Двоичный снимок")
+    class BinarySnapshotTest {
+
+        private static final Path tmpBackupPath = Paths.get("src", "test", "resources", "tmp_backup.bin");
+        private static final Path tmpCsvPath = Paths.get("src", "test", "resources", "tmp_export.csv");
+        private final BackupConfig config = BackupConfig.builder()
+                .snapshotFormat(SnapshotFormat.BINARY)
+                .build();
+
+        @BeforeEach
+        void beforeEach() throws IOException {
+            Files.deleteIfExists(tmpBackupPath);
+            taskManager = new FileBackedTaskManager(tmpBackupPath, config);
+        }
+
+        @AfterEach
+        void afterEach() throws IOException {
+            Files.deleteIfExists(tmpBackupPath);
+            Files.deleteIfExists(tmpCsvPath);
+        }
+
+        @Test
+        @DisplayName("Сохранение и восстановление")
+        void roundTrip() {
+            List<Task> refTasks = new LinkedList<>();
+            addTasks(refTasks, taskManager, 3);
+            List<Task> refEpics = new LinkedList<>(), refSubTasks = new LinkedList<>();
+            addEpicWithSubTasks(refEpics, refSubTasks, taskManager, 2, 2);
+            refTasks.get(0).setDescription("Описание");
+            taskManager.updateTask(refTasks.get(0));
+            FileBackedTaskManager restored = new FileBackedTaskManager(tmpBackupPath, config);
+            Task restoredTask = restored.getTaskById(refTasks.get(0).getId());
+            assertAll(
+                    () -> assertEquals(3, restored.getTasks().size()),
+                    () -> assertEquals(2, restored.getEpics().size()),
+                    () -> assertEquals(4, restored.getSubTasks().size()),
+                    () -> assertEquals("Описание", restoredTask.getDescription()),
+                    () -> assertEquals(refTasks.get(0).getStartDateTime(), restoredTask.getStartDateTime()),
+                    () -> assertEquals(refTasks.get(0).getDuration(), restoredTask.getDuration()),
+                    () -> assertEquals(2, restored.getEpicById(refEpics.get(0).getId()).getSubTaskIds().size()),
+                    () -> assertEquals(refEpics.get(0).getId(),
+                            restored.getSubTaskById(refSubTasks.get(0).getId()).getEpicId())
+            );
+        }
+
+        @Test
+        @DisplayName("Импорт CSV и экспорт обратно в CSV")
+        void csvImportExport() throws IOException {
+            Files.copy(Paths.get("src", "test", "resources", "backup.csv"), tmpBackupPath, REPLACE_EXISTING);
+            taskManager = new FileBackedTaskManager(tmpBackupPath, config);
+            taskManager.removeTask(5);
+            FileBackedTaskManager restored = new FileBackedTaskManager(tmpBackupPath, config);
+            restored.exportCsv(tmpCsvPath);
+            FileBackedTaskManager fromCsv = new FileBackedTaskManager(tmpCsvPath);
+            assertAll(
+                    () -> assertEquals(1, restored.getTasks().size()),
+                    () -> assertEquals(3, restored.getEpicById(2).getSubTaskIds().size()),
+                    () -> assertEquals("Description sub task 6", restored.getSubTaskById(6).getDescription()),
+                    () -> assertEquals(1, fromCsv.getTasks().size()),
+                    () -> assertEquals(3, fromCsv.getSubTasks().size())
+            );
+        }
+
+        @Test
+        @DisplayName("Повреждённый снимок не загружается")
+        void corruptedSnapshot() throws IOException {
+            addTasks(new LinkedList<>(), taskManager, 2);
+            byte[] content = Files.readAllBytes(tmpBackupPath);
+            content[content.length - 1] ^= 1;
+            Files.write(tmpBackupPath, content);
+            assertThrows(ManagerLoadException.class, () -> new FileBackedTaskManager(tmpBackupPath, config));
+        }
+    }
+
     private static String getCsvString(Task t) {
         if (t instanceof SubTask st)
             return String.join(",",
@@ -203,7 +556,8 @@ public class FileBackedTaskManagerTest extends BaseUnitTest {
                     Optional.ofNullable(st.getDescription()).orElse(""),
                     String.valueOf(st.getEpicId()),
                     t.getStartDateTime().format(ISO_LOCAL.getDtf()),
-                    String.valueOf(t.getDuration().toMinutes())
+                    String.valueOf(t.getDuration().toMinutes()),
+                    String.valueOf(t.getVersion())
             );
         else
             return String.join(",",
@@ -214,7 +568,8 @@ public class FileBackedTaskManagerTest extends BaseUnitTest {
                     Optional.ofNullable(t.getDescription()).orElse(""),
                     "",
                     t instanceof Epic ? "" : t.getStartDateTime().format(ISO_LOCAL.getDtf()),
-                    t instanceof Epic ? "" : String.valueOf(t.getDuration().toMinutes())
+                    t instanceof Epic ? "" : String.valueOf(t.getDuration().toMinutes()),
+                    String.valueOf(t.getVersion())
             );
     }
 }
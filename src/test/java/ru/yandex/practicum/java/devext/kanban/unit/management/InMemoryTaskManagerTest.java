@@ -29,6 +29,254 @@ class InMemoryTaskManagerTest extends BaseUnitTest {
         assertInstanceOf(InMemoryTaskManager.class, taskManager);
     }
 
+    @Test
+    @DisplayName("Постраничное получение задач")
+    void pagedTasks() {
+        List<Task> added = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Task t = new Task(taskManager.getNextId(), "Paged task " + i);
+            taskManager.addTask(t);
+            added.add(t);
+        }
+        Page<Task> first = taskManager.getTasks(2, null);
+        Page<Task> second = taskManager.getTasks(2, first.nextCursor());
+        taskManager.removeTask(added.get(4).getId());
+        Page<Task> last = taskManager.getTasks(2, second.nextCursor());
+        assertAll(
+                () -> assertEquals(added.subList(0, 2), first.items()),
+                () -> assertEquals(added.subList(2, 4), second.items()),
+                () -> assertEquals(List.of(), last.items()),
+                () -> assertFalse(last.hasNext()),
+                () -> assertFalse(taskManager.getTasks(10, null).hasNext()),
+                () -> assertThrows(IllegalArgumentException.class, () -> taskManager.getTasks(0, null))
+        );
+    }
+
+    @Test
+    @DisplayName("Пакетное добавление: всё или ничего")
+    void batchIsAllOrNothing() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        Task existing = new Task(taskManager.getNextId(), "Existing");
+        existing.setStartDateTime(start);
+        existing.setDuration(Duration.ofHours(1));
+        taskManager.addTask(existing);
+        List<Task> batch = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Task t = new Task(taskManager.getNextId(), "Batch task " + i);
+            t.setStartDateTime(start.plusHours(i * 2));
+            t.setDuration(Duration.ofHours(1));
+            batch.add(t);
+        }
+        Task overlapsBatch = new Task(taskManager.getNextId(), "Overlaps batch");
+        overlapsBatch.setStartDateTime(start.plusHours(4).plusMinutes(30));
+        overlapsBatch.setDuration(Duration.ofMinutes(10));
+        Task overlapsExisting = new Task(taskManager.getNextId(), "Overlaps existing");
+        overlapsExisting.setStartDateTime(start.plusMinutes(30));
+        overlapsExisting.setDuration(Duration.ofHours(1));
+        List<Task> withBatchOverlap = new ArrayList<>(batch);
+        withBatchOverlap.add(0, overlapsBatch);
+        List<Task> withExistingOverlap = new ArrayList<>(batch);
+        withExistingOverlap.add(overlapsExisting);
+        assertAll(
+                () -> assertThrows(ExecutionDateTimeOverlapException.class, () -> taskManager.addTasks(withBatchOverlap)),
+                () -> assertThrows(ExecutionDateTimeOverlapException.class, () -> taskManager.addTasks(withExistingOverlap)),
+                () -> assertThrows(IllegalArgumentException.class, () -> taskManager.addTasks(List.of(existing, existing))),
+                () -> assertEquals(List.of(existing), taskManager.getTasks())
+        );
+        taskManager.addTasks(batch);
+        List<Integer> ids = List.of(batch.get(0).getId(), batch.get(2).getId());
+        assertAll(
+                () -> assertEquals(4, taskManager.getTasks().size()),
+                () -> assertEquals(List.of(batch.get(2), batch.get(0)),
+                        taskManager.getTasksByIds(List.of(batch.get(2).getId(), -1, batch.get(0).getId()))),
+                () -> assertThrows(NotFoundException.class, () -> taskManager.removeTasks(List.of(ids.get(0), -1))),
+                () -> assertEquals(4, taskManager.getTasks().size())
+        );
+        taskManager.removeTasks(ids);
+        assertEquals(List.of(existing, batch.get(1)), taskManager.getTasks());
+    }
+
+    @Test
+    @DisplayName("Пакетное добавление подзадач в несколько эпиков")
+    void subTaskBatchBindsEpics() {
+        // Подготовка
+        Epic e1 = new Epic(taskManager.getNextId(), "Epic 1"), e2 = new Epic(taskManager.getNextId(), "Epic 2");
+        taskManager.addEpic(e1);
+        taskManager.addEpic(e2);
+        SubTask existing = new SubTask(taskManager.getNextId(), "Existing");
+        taskManager.addSubTask(existing, e1);
+        List<SubTask> batch = new ArrayList<>();
+        Set<Integer> e1Ids = new TreeSet<>(Set.of(existing.getId())), e2Ids = new TreeSet<>();
+        for (int i = 0; i < 50; i++) {
+            SubTask st = new SubTask(taskManager.getNextId(), "Batch subtask " + i);
+            Epic epic = i % 3 == 0 ? e2 : e1;
+            st.setEpicId(epic.getId());
+            (epic == e1 ? e1Ids : e2Ids).add(st.getId());
+            batch.add(st);
+        }
+        Collections.reverse(batch);
+        // Выполнение
+        taskManager.addSubTasks(batch);
+        // Проверка
+        assertAll(
+                () -> assertEquals(List.copyOf(e1Ids), e1.getSubTaskIds().intStream().boxed().toList()),
+                () -> assertEquals(List.copyOf(e2Ids), e2.getSubTaskIds().intStream().boxed().toList()),
+                () -> assertEquals(e1Ids.size(), taskManager.getEpicSummary(e1.getId()).subTaskCount())
+        );
+    }
+
+    @Test
+    @DisplayName("Версии коллекций")
+    void collectionVersions() {
+        long tasksBefore = taskManager.getVersion(CollectionKind.TASKS),
+                epicsBefore = taskManager.getVersion(CollectionKind.EPICS),
+                historyBefore = taskManager.getVersion(CollectionKind.HISTORY);
+        Task t = new Task(taskManager.getNextId(), "Task");
+        taskManager.addTask(t);
+        long tasksAfterAdd = taskManager.getVersion(CollectionKind.TASKS);
+        taskManager.getTasks();
+        taskManager.getTaskById(t.getId());
+        assertAll(
+                () -> assertTrue(tasksAfterAdd > tasksBefore),
+                () -> assertEquals(tasksAfterAdd, taskManager.getVersion(CollectionKind.TASKS)),
+                () -> assertEquals(epicsBefore, taskManager.getVersion(CollectionKind.EPICS)),
+                () -> assertTrue(taskManager.getVersion(CollectionKind.HISTORY) > historyBefore)
+        );
+    }
+
+    @Test
+    @DisplayName("Согласованное чтение во время пакетных изменений")
+    void consistentReadsDuringBatches() throws InterruptedException {
+        // Подготовка
+        int batchSize = 10;
+        List<String> torn = Collections.synchronizedList(new ArrayList<>());
+        Thread writer = new Thread(() -> {
+            for (int round = 0; round < 300; round++) {
+                List<Task> batch = new ArrayList<>();
+                for (int i = 0; i < batchSize; i++)
+                    batch.add(new Task(taskManager.getNextId(), "Batch task"));
+                taskManager.addTasks(batch);
+                taskManager.removeTasks(batch.stream().map(Task::getId).toList());
+            }
+        });
+        // Выполнение
+        writer.start();
+        while (writer.isAlive()) {
+            int size = taskManager.getTasks().size();
+            if (size % batchSize != 0)
+                torn.add("getTasks: " + size);
+            int pageSize = taskManager.getTasks(100, null).items().size();
+            if (pageSize % batchSize != 0)
+                torn.add("page: " + pageSize);
+        }
+        writer.join();
+        // Проверка
+        assertAll(
+                () -> assertEquals(List.of(), torn),
+                () -> assertEquals(List.of(), taskManager.getTasks())
+        );
+    }
+
+    @Test
+    @DisplayName("Обновление с проверкой версии")
+    void versionedUpdate() {
+        // Подготовка
+        Task stored = new Task(taskManager.getNextId(), "Task");
+        taskManager.addTask(stored);
+        Task first = new Task(stored.getId(), "First edit"), second = new Task(stored.getId(), "Second edit");
+        first.setVersion(stored.getVersion());
+        second.setVersion(stored.getVersion());
+        Task unconditional = new Task(stored.getId(), "Unconditional edit");
+        unconditional.setVersion(0);
+        // Выполнение
+        taskManager.updateTask(first);
+        // Проверка
+        assertAll(
+                () -> assertEquals(2, first.getVersion()),
+                () -> assertThrows(VersionConflictException.class, () -> taskManager.updateTask(second)),
+                () -> assertEquals("First edit", taskManager.getTaskById(stored.getId()).getName())
+        );
+        taskManager.updateTask(unconditional);
+        assertEquals(3, taskManager.getTaskById(stored.getId()).getVersion());
+    }
+
+    @Test
+    @DisplayName("Повторное обновление новыми объектами без версии")
+    void repeatedUnversionedUpdates() {
+        // Подготовка
+        Task task = new Task(taskManager.getNextId(), "Task");
+        taskManager.addTask(task);
+        Epic epic = new Epic(taskManager.getNextId(), "Epic");
+        taskManager.addEpic(epic);
+        SubTask subTask = new SubTask(taskManager.getNextId(), "Subtask");
+        taskManager.addSubTask(subTask, epic);
+        // Выполнение
+        for (String name : List.of("First edit", "Second edit")) {
+            taskManager.updateTask(new Task(task.getId(), name));
+            taskManager.updateEpic(new Epic(epic.getId(), name));
+            SubTask updatedSubTask = new SubTask(subTask.getId(), name);
+            updatedSubTask.setEpicId(epic.getId());
+            taskManager.updateSubTask(updatedSubTask);
+        }
+        // Проверка
+        assertAll(
+                () -> assertEquals("Second edit", taskManager.getTaskById(task.getId()).getName()),
+                () -> assertEquals(3, taskManager.getTaskById(task.getId()).getVersion()),
+                () -> assertEquals("Second edit", taskManager.getEpicById(epic.getId()).getName()),
+                () -> assertEquals("Second edit", taskManager.getSubTaskById(subTask.getId()).getName()),
+                () -> assertEquals(3, taskManager.getSubTaskById(subTask.getId()).getVersion())
+        );
+    }
+
+    @Test
+    @DisplayName("Одинаковые имена и описания хранятся в одном экземпляре")
+    void sharedStrings() {
+        // Подготовка
+        Task first = new Task(taskManager.getNextId(), new String("Same name"));
+        first.setDescription(new String("Same description"));
+        Task second = new Task(taskManager.getNextId(), new String("Same name"));
+        second.setDescription(new String("Same description"));
+        Task updated = new Task(first.getId(), new String("Same name"));
+        // Выполнение
+        taskManager.addTasks(List.of(first, second));
+        taskManager.updateTask(updated);
+        // Проверка
+        assertAll(
+                () -> assertSame(second.getName(), taskManager.getTaskById(first.getId()).getName()),
+                () -> assertSame(first.getDescription(), taskManager.getTaskById(second.getId()).getDescription())
+        );
+    }
+
+    @Test
+    @DisplayName("Выборка по статусу и эпику")
+    void filteredByStatusAndEpic() {
+        Task t = new Task(taskManager.getNextId(), "Task");
+        taskManager.addTask(t);
+        Epic e1 = new Epic(taskManager.getNextId(), "Epic 1"), e2 = new Epic(taskManager.getNextId(), "Epic 2");
+        taskManager.addEpic(e1);
+        taskManager.addEpic(e2);
+        SubTask st1 = new SubTask(taskManager.getNextId(), "Subtask 1"),
+                st2 = new SubTask(taskManager.getNextId(), "Subtask 2"),
+                st3 = new SubTask(taskManager.getNextId(), "Subtask 3");
+        taskManager.addSubTask(st1, e1);
+        taskManager.addSubTask(st2, e1);
+        taskManager.addSubTask(st3, e2);
+        st2.setStatus(TaskStatus.IN_PROGRESS);
+        taskManager.updateSubTask(st2);
+        t.setStatus(TaskStatus.DONE);
+        taskManager.updateTask(t);
+        taskManager.removeSubTask(st3.getId());
+        assertAll(
+                () -> assertEquals(List.of(t), taskManager.getTasks(TaskStatus.DONE, 10, null).items()),
+                () -> assertEquals(List.of(), taskManager.getTasks(TaskStatus.NEW, 10, null).items()),
+                () -> assertEquals(List.of(e1), taskManager.getEpics(TaskStatus.IN_PROGRESS, 10, null).items()),
+                () -> assertEquals(List.of(st2), taskManager.getSubTasks(TaskStatus.IN_PROGRESS, null, 10, null).items()),
+                () -> assertEquals(List.of(st1, st2), taskManager.getSubTasks(null, e1.getId(), 10, null).items()),
+                () -> assertEquals(List.of(st1), taskManager.getSubTasks(TaskStatus.NEW, e1.getId(), 10, null).items()),
+                () -> assertEquals(List.of(), taskManager.getSubTasks(null, e2.getId(), 10, null).items())
+        );
+    }
+
     @Nested
     @DisplayName("Операции с одиночными задачами")
     class SingleTaskTest {
@@ -213,6 +461,60 @@ class InMemoryTaskManagerTest extends BaseUnitTest {
                     () -> assertEquals(expectedEpicDuration, epic.getDuration())
             );
         }
+
+        @Test
+        @DisplayName("Статус и сроки эпика после обновления и удаления подзадач")
+        void epicRollupAfterUpdateAndRemove() {
+            SubTask first = (SubTask) refSubTasks.get(0), last = (SubTask) refSubTasks.get(refSubTasks.size() - 1);
+            SubTask updated = new SubTask(first.getId(), first.getName());
+            updated.setEpicId(epic.getId());
+            updated.setStatus(TaskStatus.DONE);
+            updated.setStartDateTime(first.getStartDateTime().plusMinutes(5));
+            updated.setDuration(Duration.ofMinutes(30));
+            taskManager.updateSubTask(updated);
+            TaskStatus statusAfterUpdate = epic.getStatus();
+            LocalDateTime startAfterUpdate = epic.getStartDateTime();
+            taskManager.removeSubTask(last.getId());
+            assertAll(
+                    () -> assertEquals(TaskStatus.IN_PROGRESS, statusAfterUpdate),
+                    () -> assertEquals(updated.getStartDateTime(), startAfterUpdate),
+                    () -> assertEquals(refSubTasks.get(refSubTasks.size() - 2).getEndDateTime(), epic.getEndDateTime()),
+                    () -> assertEquals(Duration.ofMinutes(30).plus(((SubTask) refSubTasks.get(1)).getDuration()),
+                            epic.getDuration())
+            );
+        }
+
+        @Test
+        @DisplayName("Перенос подзадачи в другой эпик")
+        void moveSubTaskToAnotherEpic() {
+            // Подготовка
+            Epic target = new Epic(taskManager.getNextId(), "Target epic");
+            taskManager.addEpic(target);
+            SubTask first = (SubTask) refSubTasks.get(0);
+            SubTask moved = new SubTask(first.getId(), first.getName());
+            moved.setStatus(TaskStatus.IN_PROGRESS);
+            moved.setStartDateTime(first.getStartDateTime());
+            moved.setDuration(first.getDuration());
+            SubTask orphan = new SubTask(first.getId(), first.getName());
+            orphan.setEpicId(Integer.MAX_VALUE);
+            // Выполнение
+            assertThrows(NotFoundException.class, () -> taskManager.updateSubTask(orphan));
+            moved.setEpicId(target.getId());
+            taskManager.updateSubTask(moved);
+            // Проверка
+            assertAll(
+                    () -> assertFalse(epic.getSubTaskIds().contains(first.getId())),
+                    () -> assertEquals(Set.of(first.getId()), target.getSubTaskIds()),
+                    () -> assertEquals(List.of(moved), taskManager.getSubTasksForEpic(target)),
+                    () -> assertEquals(2, taskManager.getSubTasksForEpic(epic).size()),
+                    () -> assertEquals(TaskStatus.NEW, epic.getStatus()),
+                    () -> assertEquals(TaskStatus.IN_PROGRESS, target.getStatus()),
+                    () -> assertEquals(refSubTasks.get(1).getStartDateTime(), epic.getStartDateTime()),
+                    () -> assertEquals(moved.getEndDateTime(), target.getEndDateTime()),
+                    () -> assertEquals(2, taskManager.getEpicSummary(epic.getId()).subTaskCount()),
+                    () -> assertEquals(1, taskManager.getEpicSummary(target.getId()).subTaskCount())
+            );
+        }
     }
 
     @Nested
@@ -374,6 +676,42 @@ class InMemoryTaskManagerTest extends BaseUnitTest {
             assertEquals(refList, actualPrioritizedTaskList);
         }
 
+        @Test
+        @DisplayName("Порядок после обновления и удаления")
+        void prioritizedAfterUpdateAndRemove() {
+            taskManager.addTask(t1);
+            taskManager.addTask(t2);
+            taskManager.addSubTask(st1, e);
+            taskManager.addSubTask(st2, e);
+            t2.setStartDateTime(st1.getEndDateTime().plusMinutes(30));
+            taskManager.updateTask(t2);
+            taskManager.removeSubTask(st2.getId());
+            assertAll(
+                    () -> assertEquals(List.of(st1, t2, t1), taskManager.getPrioritizedTasks()),
+                    () -> assertEquals(List.of(st1, t2), taskManager.getPrioritizedTasks(2)),
+                    () -> assertEquals(3, taskManager.getPrioritizedTasksView().size())
+            );
+        }
+
+        @Test
+        @DisplayName("Задачи, пересекающиеся с интервалом времени")
+        void prioritizedInRange() {
+            taskManager.addTask(t1);
+            taskManager.addTask(t2);
+            taskManager.addSubTask(st1, e);
+            taskManager.addSubTask(st2, e);
+            LocalDateTime insideSt2 = st2.getStartDateTime().plusMinutes(30);
+            assertAll(
+                    () -> assertEquals(List.of(st2, st1), taskManager.getPrioritizedTasks(insideSt2, t1.getStartDateTime(), 10)),
+                    () -> assertEquals(List.of(st2), taskManager.getPrioritizedTasks(insideSt2, null, 1)),
+                    () -> assertEquals(List.of(st1, t1), taskManager.getPrioritizedTasks(st2.getEndDateTime(), null, 10)),
+                    () -> assertEquals(List.of(t2, st2), taskManager.getPrioritizedTasks(null, insideSt2, 10)),
+                    () -> assertThrows(IllegalArgumentException.class, () -> taskManager.getPrioritizedTasks(null, null, 0)),
+                    () -> assertThrows(IllegalArgumentException.class,
+                            () -> taskManager.getPrioritizedTasks(insideSt2, insideSt2, 10))
+            );
+        }
+
         @Test
         @DisplayName("Задачи без срока начала")
         void skipPrioritizationForNullStartDateTime() {
@@ -426,4 +764,72 @@ class InMemoryTaskManagerTest extends BaseUnitTest {
             assertThrows(ExecutionDateTimeOverlapException.class, () -> taskManager.addTask(t2));
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Свободный интервал")
+    class FreeSlotTest {
+
+        private final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+        @BeforeEach
+        void beforeEach() {
+            Task t = new Task(taskManager.getNextId(), "Morning");
+            t.setStartDateTime(start);
+            t.setDuration(Duration.ofHours(1));
+            taskManager.addTask(t);
+            Epic e = new Epic(taskManager.getNextId(), "Test epic");
+            taskManager.addEpic(e);
+            SubTask st = new SubTask(taskManager.getNextId(), "Midday");
+            st.setStartDateTime(start.plusHours(2));
+            st.setDuration(Duration.ofHours(1));
+            taskManager.addSubTask(st, e);
+        }
+
+        @Test
+        @DisplayName("Поиск в окне")
+        void findFreeSlot() {
+            assertAll(
+                    () -> assertEquals(Optional.of(start.plusHours(1)),
+                            taskManager.findFreeSlot(Duration.ofHours(1), start, null)),
+                    () -> assertEquals(Optional.of(start.plusHours(3)),
+                            taskManager.findFreeSlot(Duration.ofMinutes(90), start, null)),
+                    () -> assertEquals(Optional.empty(),
+                            taskManager.findFreeSlot(Duration.ofMinutes(90), start, start.plusHours(4))),
+                    () -> assertThrows(IllegalArgumentException.class,
+                            () -> taskManager.findFreeSlot(Duration.ZERO, start, null))
+            );
+        }
+
+        @Test
+        @DisplayName("Добавление задачи в свободный интервал")
+        void addTaskToFreeSlot() {
+            // Подготовка
+            Task first = new Task(taskManager.getNextId(), "First");
+            first.setDuration(Duration.ofMinutes(45));
+            Task second = new Task(taskManager.getNextId(), "Second");
+            second.setDuration(Duration.ofMinutes(30));
+            Task tooLong = new Task(taskManager.getNextId(), "Too long");
+            tooLong.setDuration(Duration.ofHours(2));
+            Task done = new Task(taskManager.getNextId(), "Done");
+            done.setDuration(Duration.ofMinutes(10));
+            done.setStatus(TaskStatus.DONE);
+            Task noDuration = new Task(taskManager.getNextId(), "No duration");
+            // Выполнение
+            taskManager.addTaskToFreeSlot(first, start, null);
+            taskManager.addTaskToFreeSlot(second, start, null);
+            // Проверка
+            assertAll(
+                    () -> assertEquals(start.plusHours(1), first.getStartDateTime()),
+                    () -> assertEquals(start.plusHours(3), second.getStartDateTime()),
+                    () -> assertEquals(first, taskManager.getTaskById(first.getId())),
+                    () -> assertThrows(ExecutionDateTimeOverlapException.class,
+                            () -> taskManager.addTaskToFreeSlot(tooLong, start, start.plusHours(4))),
+                    () -> assertThrows(IllegalArgumentException.class,
+                            () -> taskManager.addTaskToFreeSlot(done, start, null)),
+                    () -> assertThrows(IllegalArgumentException.class,
+                            () -> taskManager.addTaskToFreeSlot(noDuration, start, null)),
+                    () -> assertEquals(3, taskManager.getTasks().size())
+            );
+        }
+    }
+}
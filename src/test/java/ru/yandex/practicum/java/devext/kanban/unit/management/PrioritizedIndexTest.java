@@ -0,0 +1,93 @@
+package ru.yandex.practicum.java.devext.kanban.unit.management;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.java.devext.kanban.task.SubTask;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.management.PrioritizedIndex;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@DisplayName("Индекс задач по приоритету")
+class PrioritizedIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 6, 1, 9, 0);
+    private PrioritizedIndex index;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new PrioritizedIndex();
+    }
+
+    @Test
+    @DisplayName("Задачи с одинаковым началом")
+    void sameStart() {
+        Task t2 = task(2, 0), t1 = task(1, 0);
+        SubTask st3 = new SubTask(3, "Subtask");
+        st3.setStartDateTime(BASE);
+        index.add(t2);
+        index.add(st3);
+        index.add(t1);
+        assertEquals(List.of(t1, t2, st3), new ArrayList<>(index.view()));
+    }
+
+    @Test
+    @DisplayName("Переиндексация и удаление")
+    void reindexAndRemove() {
+        Task t1 = task(1, 0), t2 = task(2, 60);
+        index.add(t1);
+        index.add(t2);
+        Task updated = task(1, 120);
+        index.add(updated);
+        assertEquals(List.of(t2, updated), new ArrayList<>(index.view()));
+        updated.setStartDateTime(null);
+        index.add(updated);
+        index.remove(t2);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @DisplayName("Первые N и диапазон по началу")
+    void headAndRange() {
+        for (int i = 0; i < 10; i++)
+            index.add(task(i, i * 60));
+        Collection<Task> range = index.startingBetween(BASE.plusMinutes(120), BASE.plusMinutes(300));
+        assertAll(
+                () -> assertEquals(List.of(task(0, 0), task(1, 60), task(2, 120)), index.head(3)),
+                () -> assertEquals(10, index.head(100).size()),
+                () -> assertEquals(List.of(task(2, 0), task(3, 0), task(4, 0)), new ArrayList<>(range)),
+                () -> assertEquals(7, index.startingBetween(BASE.plusMinutes(180), null).size()),
+                () -> assertThrows(UnsupportedOperationException.class, () -> range.remove(task(2, 0)))
+        );
+        index.add(task(10, 150));
+        assertEquals(4, range.size(), "Range view reflects later changes");
+    }
+
+    @Test
+    @DisplayName("Время хранится с точностью до секунды, границы диапазона — с любой точностью")
+    void secondPrecision() {
+        Task t = task(1, 0);
+        t.setStartDateTime(BASE.plusNanos(700_000_000));
+        index.add(t);
+        assertAll(
+                () -> assertEquals(BASE, t.getStartDateTime()),
+                () -> assertEquals(BASE.plusMinutes(30), t.getEndDateTime()),
+                () -> assertEquals(List.of(t), new ArrayList<>(index.startingBetween(BASE, BASE.plusNanos(1)))),
+                () -> assertTrue(index.startingBetween(BASE.plusNanos(1), null).isEmpty()),
+                () -> assertTrue(index.startingBetween(null, BASE).isEmpty())
+        );
+    }
+
+    private static Task task(int id, int startOffsetMinutes) {
+        Task t = new Task(id, "Test task " + id);
+        t.setStartDateTime(BASE.plusMinutes(startOffsetMinutes));
+        t.setDuration(Duration.ofMinutes(30));
+        return t;
+    }
+}
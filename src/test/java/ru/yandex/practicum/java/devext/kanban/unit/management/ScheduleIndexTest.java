@@ -0,0 +1,142 @@
+package ru.yandex.practicum.java.devext.kanban.unit.management;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.java.devext.kanban.task.SubTask;
+import ru.yandex.practicum.java.devext.kanban.task.Task;
+import ru.yandex.practicum.java.devext.kanban.task.management.ScheduleIndex;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@DisplayName("Интервальный индекс сроков исполнения")
+class ScheduleIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 6, 1, 9, 0);
+    private ScheduleIndex index;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new ScheduleIndex();
+    }
+
+    @Test
+    @DisplayName("Пересечение с соседними интервалами")
+    void findOverlap() {
+        Task t1 = task(1, 0, 60);
+        SubTask st2 = new SubTask(2, "Subtask");
+        st2.setStartDateTime(BASE.plusMinutes(120));
+        st2.setDuration(Duration.ofMinutes(60));
+        index.add(t1);
+        index.add(st2);
+        assertAll(
+                () -> assertEquals(t1, index.findOverlap(task(3, 30, 10)).orElseThrow()),
+                () -> assertEquals(st2, index.findOverlap(task(3, 90, 60)).orElseThrow()),
+                () -> assertTrue(index.findOverlap(task(3, 60, 60)).isEmpty()),
+                () -> assertTrue(index.findOverlap(t1).isEmpty())
+        );
+    }
+
+    @Test
+    @DisplayName("Переиндексация и удаление")
+    void reindexAndRemove() {
+        Task t = task(1, 0, 60);
+        index.add(t);
+        t.setStartDateTime(BASE.plusDays(1));
+        index.add(t);
+        assertAll(
+                () -> assertTrue(index.findOverlap(task(2, 0, 60)).isEmpty()),
+                () -> assertEquals(t, index.findOverlap(task(2, 24 * 60, 60)).orElseThrow()),
+                () -> assertEquals(1, index.size())
+        );
+        index.remove(t);
+        assertAll(
+                () -> assertTrue(index.findOverlap(task(2, 24 * 60, 60)).isEmpty()),
+                () -> assertEquals(0, index.size())
+        );
+    }
+
+    @Test
+    @DisplayName("Совпадение с полным перебором")
+    void matchesLinearScan() {
+        Random random = new Random(42);
+        List<Task> all = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Task t = task(i, random.nextInt(100_000), 1 + random.nextInt(300));
+            all.add(t);
+            index.add(t);
+        }
+        for (int i = 0; i < 500; i++)
+            index.remove(all.remove(random.nextInt(all.size())));
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime from = BASE.plusMinutes(random.nextInt(100_000));
+            LocalDateTime to = from.plusMinutes(1 + random.nextInt(600));
+            List<Task> expected = all.stream()
+                    .filter(t -> t.getEndDateTime().isAfter(from) && t.getStartDateTime().isBefore(to))
+                    .sorted(Comparator.comparing(Task::getStartDateTime))
+                    .toList();
+            List<Task> actual = index.findOverlaps(from, to);
+            assertEquals(expected.size(), actual.size());
+            assertTrue(actual.containsAll(expected));
+        }
+    }
+
+    @Test
+    @DisplayName("Ближайший свободный интервал")
+    void findFreeSlot() {
+        index.add(task(1, 0, 60));
+        index.add(task(2, 90, 60));
+        index.add(task(3, 150, 30));
+        assertAll(
+                () -> assertEquals(BASE.minusMinutes(30), index.findFreeSlot(BASE.minusMinutes(30), Duration.ofMinutes(30))),
+                () -> assertEquals(BASE.plusMinutes(180), index.findFreeSlot(BASE.minusMinutes(30), Duration.ofMinutes(31))),
+                () -> assertEquals(BASE.plusMinutes(60), index.findFreeSlot(BASE, Duration.ofMinutes(30))),
+                () -> assertEquals(BASE.plusMinutes(70), index.findFreeSlot(BASE.plusMinutes(70), Duration.ofMinutes(20))),
+                () -> assertEquals(BASE.plusMinutes(180), index.findFreeSlot(BASE.plusMinutes(70), Duration.ofMinutes(21))),
+                () -> assertEquals(BASE.plusMinutes(200), index.findFreeSlot(BASE.plusMinutes(200), Duration.ofDays(1)))
+        );
+    }
+
+    @Test
+    @DisplayName("Свободный интервал совпадает с полным перебором")
+    void freeSlotMatchesLinearScan() {
+        Random random = new Random(7);
+        List<Task> all = new ArrayList<>();
+        int end = 0;
+        for (int i = 0; i < 2000; i++) {
+            int start = end + random.nextInt(120);
+            Task t = task(i, start, 1 + random.nextInt(120));
+            end = start + (int) t.getDuration().toMinutes();
+            all.add(t);
+            index.add(t);
+        }
+        for (int i = 0; i < 500; i++)
+            index.remove(all.remove(random.nextInt(all.size())));
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime notBefore = BASE.plusMinutes(random.nextInt(end));
+            Duration duration = Duration.ofMinutes(1 + random.nextInt(240));
+            LocalDateTime expected = notBefore;
+            for (Task t : all) {
+                if (!t.getEndDateTime().isAfter(expected))
+                    continue;
+                if (!t.getStartDateTime().isBefore(expected.plus(duration)))
+                    break;
+                expected = t.getEndDateTime();
+            }
+            assertEquals(expected, index.findFreeSlot(notBefore, duration));
+        }
+    }
+
+    private static Task task(int id, int startOffsetMinutes, int durationMinutes) {
+        Task t = new Task(id, "Test task " + id);
+        t.setStartDateTime(BASE.plusMinutes(startOffsetMinutes));
+        t.setDuration(Duration.ofMinutes(durationMinutes));
+        return t;
+    }
+}